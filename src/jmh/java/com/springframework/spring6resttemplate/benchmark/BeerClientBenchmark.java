@@ -0,0 +1,101 @@
+package com.springframework.spring6resttemplate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springframework.spring6resttemplate.client.BeerClientImpl;
+import com.springframework.spring6resttemplate.client.RawBeerPage;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import com.springframework.spring6resttemplate.stub.BeerStubServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * end to end cost of the client hot paths against {@link BeerStubServer}. SampleTime gives the latency percentiles,
+ * run with -prof gc (the default jmh.args of the profile) to see allocation per operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerClientBenchmark {
+
+    @Param({"pooled", "simple"})
+    String transport;
+
+    @Param({"25", "250", "1000"})
+    int pageSize;
+
+    BeerStubServer stubServer;
+    BeerClientImpl beerClient;
+    UUID beerId;
+    BeerDTO newBeer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkClients.objectMapper();
+        stubServer = new BeerStubServer(objectMapper);
+        beerClient = BenchmarkClients.beerClient(stubServer.getRootUrl(), transport, objectMapper);
+        beerId = UUID.randomUUID();
+        newBeer = BeerDTO.builder()
+                .beerName("Benchmark Beer")
+                .beerStyle(BeerStyle.IPA)
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .upc("123456")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stubServer.close();
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listBeersWithFilters() {
+        return beerClient.listBeersWithFilters(null, null, null, 1, pageSize);
+    }
+
+    @Benchmark
+    public BeerPageMetadata listBeersStreaming(Blackhole blackhole) {
+        return beerClient.listBeersWithFilters(null, null, null, 1, pageSize, blackhole::consume);
+    }
+
+    @Benchmark
+    public long listBeersRaw() throws IOException {
+        try (RawBeerPage page = beerClient.listBeersRaw(null, null, null, 1, pageSize)) {
+            return page.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public BeerDTO getBeerById() {
+        return beerClient.getBeerById(beerId);
+    }
+
+    @Benchmark
+    public BeerDTO createBeer() {
+        return beerClient.createBeer(newBeer);
+    }
+}
@@ -0,0 +1,80 @@
+package com.springframework.spring6resttemplate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.springframework.spring6resttemplate.config.BeerDecodingModule;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.stub.BeerStubServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * json decode cost of beers with the Boot mapper against the read optimized one, no http involved. gc.alloc.rate.norm
+ * of decodePage divided by pageSize is the allocation per decoded beer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerDecodingBenchmark {
+
+    //optimizedSkipDates also sets rest.template.decoding.skipFields=createdDate,updateDate
+    @Param({"default", "optimized", "optimizedSkipDates"})
+    String mapper;
+
+    @Param({"250"})
+    int pageSize;
+
+    ObjectReader beerReader;
+    ObjectReader pageReader;
+    byte[] beerJson;
+    byte[] pageJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkClients.objectMapper();
+        BeerDTOPageImpl page = BeerStubServer.page(pageSize);
+        beerJson = objectMapper.writeValueAsBytes(page.getContent().get(0));
+        pageJson = objectMapper.writeValueAsBytes(page);
+
+        switch (mapper) {
+            case "default" -> {
+            }
+            case "optimized" -> objectMapper.registerModules(new BlackbirdModule(), new BeerDecodingModule(Set.of()));
+            case "optimizedSkipDates" -> objectMapper.registerModules(new BlackbirdModule(),
+                    new BeerDecodingModule(Set.of("createdDate", "updateDate")));
+            default -> throw new IllegalArgumentException("Unknown mapper " + mapper);
+        }
+
+        beerReader = objectMapper.readerFor(BeerDTO.class);
+        pageReader = objectMapper.readerFor(BeerDTOPageImpl.class);
+    }
+
+    @Benchmark
+    public BeerDTO decodeBeer() throws IOException {
+        return beerReader.readValue(beerJson);
+    }
+
+    @Benchmark
+    public BeerDTOPageImpl decodePage() throws IOException {
+        return pageReader.readValue(pageJson);
+    }
+}
@@ -0,0 +1,131 @@
+package com.springframework.spring6resttemplate.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.springframework.spring6resttemplate.client.BeerClientImpl;
+import com.springframework.spring6resttemplate.config.OAuthClientInterceptor;
+import com.springframework.spring6resttemplate.config.WireFormat;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * wires the client the way the spring context does, without starting one
+ */
+final class BenchmarkClients {
+
+    static final ClientRegistrationRepository REGISTRATIONS = new InMemoryClientRegistrationRepository(ClientRegistration
+            .withRegistrationId("springauth")
+            .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+            .clientId("messaging-client")
+            .tokenUri("http://127.0.0.1:9000/oauth2/token")
+            .build());
+
+    private BenchmarkClients() {
+    }
+
+    //same modules Boot registers, BeerDTO is bound through its builder generated constructor
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+                .build();
+    }
+
+    //real manager backed by an in memory client service that already holds a long lived token, so no token server
+    static OAuth2AuthorizedClientManager authorizedClientManager() {
+        ClientRegistration registration = REGISTRATIONS.findByRegistrationId("springauth");
+        InMemoryOAuth2AuthorizedClientService clientService = new InMemoryOAuth2AuthorizedClientService(REGISTRATIONS);
+
+        OAuth2AccessToken token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "benchmark-token",
+                Instant.now(), Instant.now().plus(Duration.ofDays(1)));
+        clientService.saveAuthorizedClient(new OAuth2AuthorizedClient(registration, registration.getClientId(), token),
+                new TestingAuthenticationToken(registration.getClientId(), null));
+
+        var manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(REGISTRATIONS, clientService);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder().clientCredentials().build());
+        return manager;
+    }
+
+    static BeerClientImpl beerClient(String rootUrl, String transport, ObjectMapper objectMapper) {
+        return beerClient(rootUrl, requestFactory(transport), List.of(new MappingJackson2HttpMessageConverter(objectMapper)));
+    }
+
+    //pooled transport with the wire format and response compression switched the way the application properties do
+    static BeerClientImpl beerClient(String rootUrl, WireFormat wireFormat, boolean compression, ObjectMapper objectMapper) {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        if (wireFormat != WireFormat.JSON) {
+            converters.add(wireFormat.binaryConverter(objectMapper));
+        }
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper));
+
+        HttpComponentsClientHttpRequestFactory pooled = new HttpComponentsClientHttpRequestFactory(pooledHttpClient(compression));
+        return beerClient(rootUrl, () -> pooled, converters);
+    }
+
+    static BeerClientImpl beerClient(String rootUrl, ClientHttpRequestFactory requestFactory, ObjectMapper objectMapper) {
+        return beerClient(rootUrl, () -> requestFactory, List.of(new MappingJackson2HttpMessageConverter(objectMapper)));
+    }
+
+    private static BeerClientImpl beerClient(String rootUrl, Supplier<ClientHttpRequestFactory> requestFactory,
+                                             List<HttpMessageConverter<?>> converters) {
+        RestTemplateBuilder builder = new RestTemplateBuilder()
+                .messageConverters(converters)
+                .requestFactory(requestFactory)
+                .additionalInterceptors(new OAuthClientInterceptor(authorizedClientManager(), REGISTRATIONS))
+                .uriTemplateHandler(new DefaultUriBuilderFactory(rootUrl));
+
+        return new BeerClientImpl(builder);
+    }
+
+    private static Supplier<ClientHttpRequestFactory> requestFactory(String transport) {
+        return switch (transport) {
+            case "simple" -> SimpleClientHttpRequestFactory::new;
+            case "pooled" -> {
+                //same bytes on the wire as the simple transport, so only the connection handling differs
+                HttpComponentsClientHttpRequestFactory pooled = new HttpComponentsClientHttpRequestFactory(pooledHttpClient(false));
+                yield () -> pooled;
+            }
+            default -> throw new IllegalArgumentException("Unknown transport " + transport);
+        };
+    }
+
+    private static CloseableHttpClient pooledHttpClient(boolean compression) {
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(200)
+                        .setMaxConnPerRoute(200)
+                        .build());
+
+        if (!compression) {
+            httpClientBuilder.disableContentCompression();
+        }
+        return httpClientBuilder.build();
+    }
+}
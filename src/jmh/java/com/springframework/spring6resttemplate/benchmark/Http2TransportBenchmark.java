@@ -0,0 +1,138 @@
+package com.springframework.spring6resttemplate.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springframework.spring6resttemplate.client.BeerClientImpl;
+import com.springframework.spring6resttemplate.config.Http2ClientHttpRequestFactory;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.stub.BeerStubServer;
+import io.netty.buffer.Unpooled;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/1.1 pooling (the application defaults, 50 connections per route) against HTTP/2 multiplexing (2 connections,
+ * 100 streams each) with 1, 64 and 512 callers. One operation is a round of one getBeerById per caller, so the score
+ * times callers is calls per second. The connections counter is the most TCP connections the server saw open at once,
+ * summed over the measurement iterations like every EVENTS counter, so divide it by Cnt. The stub is netty because the
+ * JDK server in BeerStubServer only speaks HTTP/1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Http2TransportBenchmark {
+
+    @Param({"http1", "http2"})
+    String transport;
+
+    @Param({"1", "64", "512"})
+    int callers;
+
+    final AtomicInteger openConnections = new AtomicInteger();
+    final AtomicInteger peakConnections = new AtomicInteger();
+
+    DisposableServer server;
+    ExecutorService callerThreads;
+    BeerClientImpl beerClient;
+    UUID beerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = BenchmarkClients.objectMapper();
+        byte[] beer = objectMapper.writeValueAsBytes(BeerStubServer.page(1).getContent().get(0));
+
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+                    channel.closeFuture().addListener(closed -> openConnections.decrementAndGet());
+                })
+                .handle((request, response) -> response.header("Content-Type", "application/json")
+                        .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(beer))))
+                .bindNow();
+
+        callerThreads = Executors.newFixedThreadPool(callers);
+        beerClient = BenchmarkClients.beerClient("http://127.0.0.1:" + server.port(), requestFactory(), objectMapper);
+        beerId = UUID.randomUUID();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        callerThreads.shutdownNow();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public List<BeerDTO> getBeerById(Connections connections) {
+        List<CompletableFuture<BeerDTO>> calls = new ArrayList<>(callers);
+        for (int i = 0; i < callers; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> beerClient.getBeerById(beerId), callerThreads));
+        }
+
+        List<BeerDTO> beers = calls.stream().map(CompletableFuture::join).toList();
+        connections.connections = peakConnections.get();
+        return beers;
+    }
+
+    //callers beyond the pool or the stream cap queue for a slot, the timeouts only keep a broken run from hanging
+    private ClientHttpRequestFactory requestFactory() {
+        return switch (transport) {
+            case "http1" -> new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                    .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                            .setMaxConnTotal(200)
+                            .setMaxConnPerRoute(50)
+                            .build())
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectionRequestTimeout(Timeout.ofSeconds(30))
+                            .build())
+                    .disableContentCompression()
+                    .build());
+            case "http2" -> new Http2ClientHttpRequestFactory(2, 100, Duration.ofSeconds(2), Duration.ofSeconds(10),
+                    Duration.ofSeconds(30));
+            default -> throw new IllegalArgumentException("Unknown transport " + transport);
+        };
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Connections {
+        public long connections;
+    }
+}
@@ -0,0 +1,203 @@
+package com.springframework.spring6resttemplate.benchmark;
+
+import com.springframework.spring6resttemplate.Spring6ResttemplateApplication;
+import com.springframework.spring6resttemplate.client.BeerClient;
+import com.springframework.spring6resttemplate.stub.BeerStubServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * open model load against the application's BeerClient: calls start on a fixed schedule at the target rate whether or
+ * not the earlier ones have finished, and latency is taken from the scheduled start, so a slow service shows up as
+ * latency instead of as a lower request rate. The client runs in the application context (batch profile) against an
+ * embedded {@link BeerStubServer}, or against a real service with --target and --tokenUri. Run with
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.main=com.springframework.spring6resttemplate.benchmark.LoadGenerator \
+ *       -Djmh.args="--rps 500 --duration 30s --latency 20ms --jitter 30ms --errorRate 0.01"
+ *
+ * Other options: --warmup (5s), --listShare (0.2, the rest are getBeerById), --pageSize (25), --maxInFlight (2000,
+ * calls beyond it are dropped and counted), --errorStatus (503), --replay dir, --record dir (with --target and
+ * --tokenUri, the stub proxies to the target and writes fixtures. The client takes its tokens from --tokenUri so the
+ * target sees a token it accepts, the stub never forwards the ones it issues itself)
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        int rps = Integer.parseInt(options.getOrDefault("rps", "200"));
+        Duration duration = duration(options.getOrDefault("duration", "30s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "5s"));
+        double listShare = Double.parseDouble(options.getOrDefault("listShare", "0.2"));
+        int pageSize = Integer.parseInt(options.getOrDefault("pageSize", "25"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("maxInFlight", "2000"));
+
+        try (BeerStubServer stubServer = stubServer(options)) {
+            String target = options.containsKey("target") && !options.containsKey("record")
+                    ? options.get("target") : stubServer.getRootUrl();
+            String tokenUri = options.getOrDefault("tokenUri", stubServer.getTokenUri());
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(Spring6ResttemplateApplication.class)
+                    .profiles("batch")
+                    .initializers(LoadGenerator::excludeTestConfigurations)
+                    .run("--rest.template.rootUrl=" + target,
+                            "--spring.security.oauth2.client.provider.springauth.token-uri=" + tokenUri);
+
+            try (context) {
+                BeerClient beerClient = context.getBean(BeerClient.class);
+                Runnable call = () -> {
+                    if (ThreadLocalRandom.current().nextDouble() < listShare) {
+                        beerClient.listBeersWithFilters(null, null, null, 1, pageSize);
+                    } else {
+                        beerClient.getBeerById(UUID.randomUUID());
+                    }
+                };
+
+                run(call, rps, warmup, maxInFlight);
+                Result result = run(call, rps, duration, maxInFlight);
+                System.out.println(result.report(rps, duration));
+            }
+        }
+    }
+
+    static Result run(Runnable call, int rps, Duration duration, int maxInFlight) throws InterruptedException {
+        int total = (int) (rps * duration.toNanos() / 1_000_000_000L);
+        long periodNanos = 1_000_000_000L / rps;
+        long[] latencies = new long[total];
+        AtomicInteger completed = new AtomicInteger();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int dropped = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long scheduled = start + i * periodNanos;
+            for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+
+            //past maxInFlight the client is not keeping up at all, counting beats queueing without bound
+            if (!inFlight.tryAcquire()) {
+                dropped++;
+                continue;
+            }
+            workers.execute(() -> {
+                try {
+                    call.run();
+                    latencies[completed.getAndIncrement()] = System.nanoTime() - scheduled;
+                } catch (RestClientResponseException e) {
+                    errors.computeIfAbsent("HTTP " + e.getStatusCode().value(), key -> new LongAdder()).increment();
+                } catch (RuntimeException e) {
+                    errors.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+        long[] sorted = Arrays.copyOf(latencies, completed.get());
+        Arrays.sort(sorted);
+        return new Result(total, dropped, errorCounts, sorted, elapsedNanos);
+    }
+
+    //test sources are on this classpath, their @TestConfiguration classes must not end up in the scanned context
+    private static void excludeTestConfigurations(ConfigurableApplicationContext context) {
+        context.getBeanFactory().registerSingleton("testConfigurationExcludeFilter", new TypeExcludeFilter() {
+            @Override
+            public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+                return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+            }
+        });
+    }
+
+    private static BeerStubServer stubServer(Map<String, String> options) throws IOException {
+        //a stub token would be answered with 401 by the target, and those are all the fixtures would hold
+        if (options.containsKey("record") && (!options.containsKey("target") || !options.containsKey("tokenUri"))) {
+            throw new IllegalArgumentException("--record needs --target and --tokenUri");
+        }
+        BeerStubServer stubServer = new BeerStubServer(BenchmarkClients.objectMapper());
+        stubServer.setLatency(duration(options.getOrDefault("latency", "0ms")), duration(options.getOrDefault("jitter", "0ms")));
+        stubServer.setErrors(Double.parseDouble(options.getOrDefault("errorRate", "0")),
+                Integer.parseInt(options.getOrDefault("errorStatus", "503")));
+        if (options.containsKey("replay")) {
+            stubServer.replay(Path.of(options.get("replay")));
+        }
+        if (options.containsKey("record")) {
+            stubServer.recordFrom(URI.create(options.get("target")), Path.of(options.get("record")));
+        }
+        return stubServer;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+
+    //30s, 500ms, 2m, like the application properties
+    private static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+
+    record Result(int requested, int dropped, Map<String, Long> errors, long[] latencies, long elapsedNanos) {
+
+        String report(int rps, Duration duration) {
+            long errorCount = errors.values().stream().mapToLong(Long::longValue).sum();
+            double seconds = elapsedNanos / 1e9;
+
+            StringBuilder report = new StringBuilder()
+                    .append(String.format("requests   %d (%d/s for %ss), completed %d, errors %d, dropped %d%n",
+                            requested, rps, duration.toMillis() / 1000.0, latencies.length, errorCount, dropped))
+                    .append(String.format("throughput %.1f/s%n", latencies.length / seconds))
+                    .append(String.format("latency    p50 %.2fms  p99 %.2fms  p999 %.2fms  max %.2fms%n",
+                            percentile(0.5), percentile(0.99), percentile(0.999), percentile(1.0)));
+            errors.forEach((type, count) -> report.append(String.format("error      %s: %d%n", type, count)));
+            return report.toString();
+        }
+
+        private double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.springframework.spring6resttemplate.benchmark;
+
+import com.springframework.spring6resttemplate.config.OAuthClientInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * per request cost of adding the bearer header. legacyAuthorizePerRequest is what the interceptor used to do (new
+ * principal and authorize request, then a trip through the authorized client manager on every call), cachedInterceptor
+ * is the current {@link OAuthClientInterceptor}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OAuthClientInterceptorBenchmark {
+
+    static final byte[] NO_BODY = new byte[0];
+    static final URI BEER_URI = URI.create("http://127.0.0.1/api/v1/beer");
+
+    OAuth2AuthorizedClientManager manager;
+    OAuthClientInterceptor interceptor;
+    ClientHttpRequestExecution execution;
+    ClientHttpResponse response;
+
+    @Setup
+    public void setUp() {
+        manager = BenchmarkClients.authorizedClientManager();
+        interceptor = new OAuthClientInterceptor(manager, BenchmarkClients.REGISTRATIONS);
+        response = new MockClientHttpResponse(NO_BODY, HttpStatus.OK);
+        execution = (request, body) -> response;
+    }
+
+    @Benchmark
+    public ClientHttpResponse cachedInterceptor() throws IOException {
+        return interceptor.intercept(newRequest(), NO_BODY, execution);
+    }
+
+    @Benchmark
+    public ClientHttpResponse legacyAuthorizePerRequest() throws IOException {
+        HttpRequest request = newRequest();
+
+        OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest
+                .withClientRegistrationId("springauth")
+                .principal(new TestingAuthenticationToken("messaging-client", null))
+                .build();
+        OAuth2AuthorizedClient client = manager.authorize(authorizeRequest);
+
+        request.getHeaders().add(HttpHeaders.AUTHORIZATION, "Bearer " + client.getAccessToken().getTokenValue());
+        return execution.execute(request, NO_BODY);
+    }
+
+    //bare request with its own headers, keeps the measurement on the interceptor
+    private static HttpRequest newRequest() {
+        HttpHeaders headers = new HttpHeaders();
+
+        return new HttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return HttpMethod.GET;
+            }
+
+            @Override
+            public URI getURI() {
+                return BEER_URI;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.springframework.spring6resttemplate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springframework.spring6resttemplate.client.BeerClientImpl;
+import com.springframework.spring6resttemplate.config.WireFormat;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.stub.BeerStubServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * bytes on the wire against client cpu for each body encoding and response compression. The wireBytes, clientCpuNanos
+ * and calls counters are totals per iteration, divide by calls for the per request numbers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    WireFormat format;
+
+    @Param({"identity", "gzip"})
+    String compression;
+
+    @Param({"250", "1000"})
+    int pageSize;
+
+    BeerStubServer stubServer;
+    BeerClientImpl beerClient;
+    UUID beerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkClients.objectMapper();
+        stubServer = new BeerStubServer(objectMapper);
+        beerClient = BenchmarkClients.beerClient(stubServer.getRootUrl(), format, "gzip".equals(compression), objectMapper);
+        beerId = UUID.randomUUID();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stubServer.close();
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listBeersWithFilters(Cost cost) {
+        return cost.measure(stubServer, () -> beerClient.listBeersWithFilters(null, null, null, 1, pageSize));
+    }
+
+    @Benchmark
+    public BeerDTO getBeerById(Cost cost) {
+        return cost.measure(stubServer, () -> beerClient.getBeerById(beerId));
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cost {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        public long wireBytes;
+        public long clientCpuNanos;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            wireBytes = 0;
+            clientCpuNanos = 0;
+            calls = 0;
+        }
+
+        //the stub counter is shared, so the byte numbers are only exact with a single benchmark thread
+        <T> T measure(BeerStubServer stubServer, Supplier<T> call) {
+            long bytesBefore = stubServer.getBytesWritten();
+            long cpuBefore = THREADS.getCurrentThreadCpuTime();
+
+            T result = call.get();
+
+            clientCpuNanos += THREADS.getCurrentThreadCpuTime() - cpuBefore;
+            wireBytes += stubServer.getBytesWritten() - bytesBefore;
+            calls++;
+            return result;
+        }
+    }
+}
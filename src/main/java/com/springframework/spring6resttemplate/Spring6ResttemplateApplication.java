@@ -1,9 +1,12 @@
 package com.springframework.spring6resttemplate;
 
+import com.springframework.spring6resttemplate.config.BeerClientRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(BeerClientRuntimeHints.class)
 public class Spring6ResttemplateApplication {
 
     public static void main(String[] args) {
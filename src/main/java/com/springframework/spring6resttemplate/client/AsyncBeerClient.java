@@ -0,0 +1,26 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.data.domain.Page;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * non blocking facade over {@link BeerClient}, every call returns right away and completes on the client executor
+ */
+public interface AsyncBeerClient {
+
+    CompletableFuture<Page<BeerDTO>> listBeers();
+
+    CompletableFuture<Page<BeerDTO>> listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
+
+    CompletableFuture<BeerDTO> getBeerById(UUID beerId);
+
+    CompletableFuture<BeerDTO> createBeer(BeerDTO beerDtoToAdd);
+
+    CompletableFuture<BeerDTO> updateBeer(BeerDTO beerDTO);
+
+    CompletableFuture<Void> deleteBeer(UUID beerId);
+}
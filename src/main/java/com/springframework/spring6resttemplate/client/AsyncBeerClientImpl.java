@@ -0,0 +1,115 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * runs the blocking {@link BeerClient} calls on the client executor, so the OAuth interceptor, the pooled transport and
+ * the url templates of {@link BeerClientImpl} are reused as they are. Permits cap how many calls can be in flight
+ * against the beer service host at the same time. A call is only handed to the executor once it has a permit, so
+ * calls over the cap queue up in order without holding a pool thread
+ */
+@Service
+public class AsyncBeerClientImpl implements AsyncBeerClient {
+
+    private final BeerClient beerClient;
+    private final Executor executor;
+    private final Deque<CompletableFuture<Void>> permitWaiters = new ArrayDeque<>();
+    private int freePermits;
+
+    public AsyncBeerClientImpl(BeerClient beerClient,
+                               @Qualifier("beerClientExecutor") Executor executor,
+                               @Value("${rest.template.async.maxConcurrentPerHost:64}") int maxConcurrentPerHost) {
+        //more permits than threads and the cap is never reached, the pool is the limit instead
+        if (executor instanceof ThreadPoolExecutor pool && maxConcurrentPerHost > pool.getMaximumPoolSize()) {
+            throw new IllegalStateException("rest.template.async.maxConcurrentPerHost (" + maxConcurrentPerHost
+                    + ") is above the " + pool.getMaximumPoolSize() + " threads of rest.template.async.poolSize");
+        }
+
+        this.beerClient = beerClient;
+        this.executor = executor;
+        this.freePermits = maxConcurrentPerHost;
+    }
+
+    @Override
+    public CompletableFuture<Page<BeerDTO>> listBeers() {
+        return supplyLimited(beerClient::listBeers);
+    }
+
+    @Override
+    public CompletableFuture<Page<BeerDTO>> listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        return supplyLimited(() -> beerClient.listBeersWithFilters(beerName, beerStyle, showInventory, pageNumber, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<BeerDTO> getBeerById(UUID beerId) {
+        return supplyLimited(() -> beerClient.getBeerById(beerId));
+    }
+
+    @Override
+    public CompletableFuture<BeerDTO> createBeer(BeerDTO beerDtoToAdd) {
+        return supplyLimited(() -> beerClient.createBeer(beerDtoToAdd));
+    }
+
+    @Override
+    public CompletableFuture<BeerDTO> updateBeer(BeerDTO beerDTO) {
+        return supplyLimited(() -> beerClient.updateBeer(beerDTO));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteBeer(UUID beerId) {
+        return supplyLimited(() -> {
+            beerClient.deleteBeer(beerId);
+            return null;
+        });
+    }
+
+    //free permits, handy to see how close callers are to the per host limit
+    public synchronized int availablePermits() {
+        return freePermits;
+    }
+
+    //released once the call is done either way, also when the executor rejects it and the call never runs
+    private <T> CompletableFuture<T> supplyLimited(Supplier<T> call) {
+        return acquirePermit()
+                .thenApplyAsync(permit -> call.get(), executor)
+                .whenComplete((result, failure) -> releasePermit());
+    }
+
+    //completes once the call may start, waiters are served first come first served
+    private synchronized CompletableFuture<Void> acquirePermit() {
+        if (freePermits > 0) {
+            freePermits--;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        permitWaiters.add(waiter);
+        return waiter;
+    }
+
+    //hands the permit straight to the next waiter, if there is one
+    private void releasePermit() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = permitWaiters.poll();
+            if (next == null) {
+                freePermits++;
+                return;
+            }
+        }
+        next.complete(null);
+    }
+}
@@ -0,0 +1,127 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BatchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * runs one call per key in parallel on the client executor. At most maxConcurrency workers pull keys from a shared
+ * queue, so no thread ever sits blocked on a permit, and nothing new is started once the deadline has passed. Calls
+ * still running at the deadline are not cancelled, they are reported in flight instead of as failures
+ */
+@Component
+public class BatchRunner {
+
+    private final Executor executor;
+    private final int defaultConcurrency;
+    private final Duration defaultDeadline;
+
+    @Autowired
+    public BatchRunner(@Qualifier("beerClientExecutor") Executor executor,
+                       @Value("${rest.template.batch.maxConcurrency:16}") int defaultConcurrency,
+                       @Value("${rest.template.batch.deadline:30s}") Duration defaultDeadline) {
+        this.executor = executor;
+        this.defaultConcurrency = defaultConcurrency;
+        this.defaultDeadline = defaultDeadline;
+    }
+
+    public int getDefaultConcurrency() {
+        return defaultConcurrency;
+    }
+
+    public Duration getDefaultDeadline() {
+        return defaultDeadline;
+    }
+
+    public <K, V> BatchResult<K, V> run(Collection<K> keys, Function<K, V> call) {
+        return run(keys, call, defaultConcurrency, defaultDeadline);
+    }
+
+    public <K, V> BatchResult<K, V> run(Collection<K> keys, Function<K, V> call, int maxConcurrency, Duration deadline) {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + deadline.toNanos();
+
+        Collection<K> distinctKeys = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("Batch keys must not be null");
+            }
+            distinctKeys.add(key);
+        }
+        Queue<K> pending = new ConcurrentLinkedQueue<>(distinctKeys);
+        //a key gets its future right before its call starts, keys without one were never sent
+        Map<K, CompletableFuture<V>> started = new ConcurrentHashMap<>();
+
+        int workers = Math.max(1, Math.min(maxConcurrency, distinctKeys.size()));
+        CompletableFuture<?>[] running = new CompletableFuture<?>[workers];
+
+        for (int i = 0; i < workers; i++) {
+            running[i] = CompletableFuture.runAsync(() -> {
+                K key;
+                while (System.nanoTime() < deadlineNanos && (key = pending.poll()) != null) {
+                    CompletableFuture<V> outcome = new CompletableFuture<>();
+                    started.put(key, outcome);
+                    //an Error too, otherwise it would kill the worker and leave the outcome open for good
+                    try {
+                        outcome.complete(call.apply(key));
+                    } catch (Throwable e) {
+                        outcome.completeExceptionally(e);
+                    }
+                }
+            }, executor);
+        }
+
+        try {
+            CompletableFuture.allOf(running).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            //stop the workers from picking up anything else, whatever is unfinished is reported below
+            pending.clear();
+        } catch (InterruptedException e) {
+            pending.clear();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        }
+
+        //snapshot in input order, calls still running stay in flight with their future
+        Map<K, V> orderedSuccesses = new LinkedHashMap<>();
+        Map<K, Exception> orderedFailures = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> orderedInFlight = new LinkedHashMap<>();
+        for (K key : distinctKeys) {
+            CompletableFuture<V> outcome = started.get(key);
+
+            if (outcome == null) {
+                orderedFailures.put(key, new TimeoutException("Batch deadline of " + deadline + " exceeded before the call started"));
+            } else if (!outcome.isDone()) {
+                orderedInFlight.put(key, outcome);
+            } else if (outcome.isCompletedExceptionally()) {
+                orderedFailures.put(key, asException(outcome.handle((value, failure) -> failure).join()));
+            } else {
+                orderedSuccesses.put(key, outcome.join());
+            }
+        }
+
+        return new BatchResult<>(orderedSuccesses, orderedFailures, orderedInFlight, Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private static Exception asException(Throwable failure) {
+        return failure instanceof Exception exception ? exception : new ExecutionException("Batch call failed", failure);
+    }
+}
@@ -0,0 +1,184 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * bounded LRU cache of beers by id used by {@link BeerClientImpl#getBeerById(UUID)}. Entries are fresh for ttl, after
+ * that they are revalidated with their ETag (If-None-Match) instead of being downloaded again. Beers are spread over
+ * up to 16 segments by id, each its own LRU with a share of maxEntries, so concurrent lookups only contend within a
+ * segment. A beer older (lower version) than the cached one never replaces it. A maxEntries of 0 switches the cache off
+ */
+@Component
+public class BeerCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    //smaller caches keep fewer segments, so the LRU order stays close to the exact one
+    private static final int MIN_SEGMENT_ENTRIES = 256;
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Clock clock;
+    private final List<Map<UUID, Entry>> segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public BeerCache(@Value("${rest.template.cache.maxEntries:10000}") int maxEntries,
+                     @Value("${rest.template.cache.ttl:30s}") Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    public BeerCache(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.clock = clock;
+
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_ENTRIES));
+        List<Map<UUID, Entry>> segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            //the remainder goes to the first segments, so the capacities add up to maxEntries
+            segments.add(segment(maxEntries / segmentCount + (i < maxEntries % segmentCount ? 1 : 0)));
+        }
+        this.segments = List.copyOf(segments);
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    //cached entry, fresh or not, null when there is nothing to revalidate
+    Entry get(UUID beerId) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        Map<UUID, Entry> segment = segmentFor(beerId);
+        synchronized (segment) {
+            return segment.get(beerId);
+        }
+    }
+
+    //a response that was overtaken by a newer one (a slow read racing a later read) keeps the newer beer cached
+    void put(BeerDTO beer, String etag) {
+        if (!isEnabled() || beer == null || beer.getId() == null) {
+            return;
+        }
+
+        Entry entry = new Entry(copyOf(beer), etag, beer.getVersion(), clock.instant().plus(ttl));
+        Map<UUID, Entry> segment = segmentFor(beer.getId());
+        synchronized (segment) {
+            Entry cached = segment.get(beer.getId());
+            if (cached == null || !isOlder(entry, cached)) {
+                segment.put(beer.getId(), entry);
+            }
+        }
+    }
+
+    //304 Not Modified, keep the body and start a new ttl
+    BeerDTO revalidated(Entry entry) {
+        revalidations.increment();
+        put(entry.beer(), entry.etag());
+        return copyOf(entry.beer());
+    }
+
+    void invalidate(UUID beerId) {
+        Map<UUID, Entry> segment = segmentFor(beerId);
+        synchronized (segment) {
+            segment.remove(beerId);
+        }
+    }
+
+    public void clear() {
+        for (Map<UUID, Entry> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    boolean isFresh(Entry entry) {
+        return clock.instant().isBefore(entry.freshUntil());
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<UUID, Entry> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    //BeerDTO is mutable, callers always get their own copy
+    static BeerDTO copyOf(BeerDTO beer) {
+        return beer.toBuilder().build();
+    }
+
+    private Map<UUID, Entry> segmentFor(UUID beerId) {
+        int hash = beerId.hashCode();
+        return segments.get(Math.floorMod(hash ^ (hash >>> 16), segments.size()));
+    }
+
+    //access ordered, so the eldest entry is the least recently used one
+    private Map<UUID, Entry> segment(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //beers without a version always replace each other
+    private static boolean isOlder(Entry incoming, Entry cached) {
+        return incoming.version() != null && cached.version() != null && incoming.version() < cached.version();
+    }
+
+    record Entry(BeerDTO beer, String etag, Integer version, Instant freshUntil) {
+    }
+}
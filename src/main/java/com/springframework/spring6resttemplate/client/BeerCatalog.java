@@ -0,0 +1,318 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * in process replica of the beer catalog for read mostly lookups. A full paged load builds it, after that every sync
+ * walks the pages again but only applies beers whose version or updateDate moved (the service has no changed since
+ * filter), and a beer is only removed once two passes in a row did not see it, so a page shifting under a concurrent
+ * insert cannot delete anything. Reads go against an immutable snapshot sorted by name, with indexes by id, upc, style
+ * (a bitset per style) and name prefix, and use the same filter and paging rules as the beer service
+ */
+@Component
+@ConditionalOnProperty(name = "rest.template.catalog.enabled", havingValue = "true")
+public class BeerCatalog implements SmartLifecycle {
+    //paging defaults of the beer service
+    static final int DEFAULT_PAGE_SIZE = 25;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final BeerClient beerClient;
+    private final Duration syncInterval;
+    private final int syncPageSize;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Snapshot snapshot;
+    private volatile Instant syncedAsOf;
+    private Set<UUID> missedLastPass = Set.of();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public BeerCatalog(BeerClient beerClient,
+                       @Value("${rest.template.catalog.syncInterval:30s}") Duration syncInterval,
+                       @Value("${rest.template.catalog.syncPageSize:1000}") int syncPageSize,
+                       MeterRegistry meterRegistry) {
+        this(beerClient, syncInterval, syncPageSize, Clock.systemUTC(), meterRegistry);
+    }
+
+    public BeerCatalog(BeerClient beerClient, Duration syncInterval, int syncPageSize, Clock clock, MeterRegistry meterRegistry) {
+        this.beerClient = beerClient;
+        this.syncInterval = syncInterval;
+        this.syncPageSize = Math.min(syncPageSize, MAX_PAGE_SIZE);
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("beer.client.catalog.size", this, BeerCatalog::size)
+                .description("Beers held by the local catalog replica").register(meterRegistry);
+        Gauge.builder("beer.client.catalog.lag", this, catalog -> catalog.getLag().toMillis() / 1000.0)
+                .description("Age of the data served by the catalog, measured from the start of the last completed sync")
+                .baseUnit("seconds").register(meterRegistry);
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.beers.length;
+    }
+
+    //how far the catalog may be behind the service, zero before the first load
+    public Duration getLag() {
+        Instant asOf = syncedAsOf;
+        return asOf == null ? Duration.ZERO : Duration.between(asOf, clock.instant());
+    }
+
+    //same semantics as BeerClient#listBeersWithFilters, answered by the service until the first load is done
+    public Page<BeerDTO> listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return beerClient.listBeersWithFilters(beerName, beerStyle, showInventory, pageNumber, pageSize);
+        }
+
+        int page = pageNumber != null && pageNumber > 0 ? pageNumber - 1 : 0;
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        String nameFilter = beerName == null ? null : beerName.toLowerCase(Locale.ROOT);
+
+        //the style bitset narrows the scan, the name is matched like the service's case insensitive LIKE %name%
+        BitSet candidates = beerStyle == null ? current.all : current.byStyle.get(beerStyle);
+        List<BeerDTO> content = new ArrayList<>(Math.min(size, candidates.cardinality()));
+        long first = (long) page * size;
+        long total = 0;
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (nameFilter != null && !current.lowerNames[i].contains(nameFilter)) {
+                continue;
+            }
+            if (total >= first && content.size() < size) {
+                content.add(view(current.beers[i], showInventory));
+            }
+            total++;
+        }
+
+        return new BeerDTOPageImpl<>(content, PageRequest.of(page, Math.max(size, 1)), total);
+    }
+
+    //beers whose name starts with the prefix, ignoring case, in name order
+    public List<BeerDTO> findByNamePrefix(String prefix, int limit) {
+        Snapshot current = requireLoaded();
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+
+        int from = Arrays.binarySearch(current.lowerNames, lowerPrefix);
+        from = from < 0 ? -from - 1 : from;
+        //equal names sort by id, step back to the first of them
+        while (from > 0 && current.lowerNames[from - 1].equals(lowerPrefix)) {
+            from--;
+        }
+
+        List<BeerDTO> found = new ArrayList<>();
+        for (int i = from; i < current.lowerNames.length && found.size() < limit && current.lowerNames[i].startsWith(lowerPrefix); i++) {
+            found.add(BeerCache.copyOf(current.beers[i]));
+        }
+        return found;
+    }
+
+    //a beer the catalog does not know yet may have been created since the last sync, ask the service for it
+    public BeerDTO getBeerById(UUID beerId) {
+        Snapshot current = snapshot;
+        BeerDTO beer = current == null ? null : current.get(beerId);
+
+        return beer == null ? beerClient.getBeerById(beerId) : BeerCache.copyOf(beer);
+    }
+
+    public BeerDTO getBeerByUpc(String upc) {
+        Snapshot current = requireLoaded();
+        Integer ordinal = current.byUpc.get(upc);
+        return ordinal == null ? null : BeerCache.copyOf(current.beers[ordinal]);
+    }
+
+    /**
+     * one pass over every page of the service, returns the number of beers added, changed or removed. The snapshot is
+     * only rebuilt when something changed
+     */
+    public synchronized int sync() {
+        Instant started = clock.instant();
+        Snapshot current = snapshot;
+        Map<UUID, BeerDTO> changed = new HashMap<>();
+        Set<UUID> seen = new HashSet<>();
+
+        int pageNumber = 1;
+        BeerPageMetadata metadata;
+        do {
+            metadata = beerClient.listBeersWithFilters(null, null, true, pageNumber++, syncPageSize, beer -> {
+                seen.add(beer.getId());
+                BeerDTO known = current == null ? null : current.get(beer.getId());
+                if (known == null || isNewer(beer, known)) {
+                    changed.put(beer.getId(), beer);
+                }
+            });
+        } while (pageNumber <= metadata.totalPages());
+
+        Set<UUID> missed = new HashSet<>();
+        Set<UUID> removed = new HashSet<>();
+        if (current != null) {
+            for (UUID beerId : current.byId.keySet()) {
+                if (!seen.contains(beerId)) {
+                    (missedLastPass.contains(beerId) ? removed : missed).add(beerId);
+                }
+            }
+        }
+        missedLastPass = missed;
+
+        if (current == null || !changed.isEmpty() || !removed.isEmpty()) {
+            Map<UUID, BeerDTO> beers = new HashMap<>();
+            if (current != null) {
+                for (BeerDTO beer : current.beers) {
+                    beers.put(beer.getId(), beer);
+                }
+            }
+            beers.putAll(changed);
+            removed.forEach(beers::remove);
+            snapshot = new Snapshot(beers.values());
+        }
+        syncedAsOf = started;
+
+        Counter.builder("beer.client.catalog.changes").tag("type", "upsert").register(meterRegistry).increment(changed.size());
+        Counter.builder("beer.client.catalog.changes").tag("type", "delete").register(meterRegistry).increment(removed.size());
+        return changed.size() + removed.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-catalog-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    //a failed pass keeps serving the previous snapshot, the lag gauge shows how stale it gets
+    private void syncQuietly() {
+        try {
+            sync();
+            Counter.builder("beer.client.catalog.syncs").tag("result", "success").register(meterRegistry).increment();
+        } catch (RuntimeException e) {
+            Counter.builder("beer.client.catalog.syncs").tag("result", "failure").register(meterRegistry).increment();
+        }
+    }
+
+    private Snapshot requireLoaded() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Beer catalog has not been loaded yet");
+        }
+        return current;
+    }
+
+    private static boolean isNewer(BeerDTO beer, BeerDTO known) {
+        if (beer.getVersion() == null && beer.getUpdateDate() == null) {
+            return !beer.equals(known);
+        }
+        return !Objects.equals(beer.getVersion(), known.getVersion()) || !Objects.equals(beer.getUpdateDate(), known.getUpdateDate());
+    }
+
+    //the service drops the quantity unless showInventory is true or missing
+    private static BeerDTO view(BeerDTO beer, Boolean showInventory) {
+        BeerDTO copy = BeerCache.copyOf(beer);
+        if (Boolean.FALSE.equals(showInventory)) {
+            copy.setQuantityOnHand(null);
+        }
+        return copy;
+    }
+
+    private static final class Snapshot {
+        private static final Comparator<BeerDTO> BY_NAME = Comparator
+                .comparing((BeerDTO beer) -> lower(beer.getBeerName()))
+                .thenComparing(BeerDTO::getId);
+
+        final BeerDTO[] beers;
+        final String[] lowerNames;
+        final Map<UUID, Integer> byId;
+        final Map<String, Integer> byUpc;
+        final Map<BeerStyle, BitSet> byStyle = new EnumMap<>(BeerStyle.class);
+        final BitSet all;
+
+        Snapshot(Collection<BeerDTO> beers) {
+            this.beers = beers.toArray(new BeerDTO[0]);
+            Arrays.sort(this.beers, BY_NAME);
+
+            lowerNames = new String[this.beers.length];
+            byId = new HashMap<>(this.beers.length * 2);
+            byUpc = new HashMap<>(this.beers.length * 2);
+            all = new BitSet(this.beers.length);
+            all.set(0, this.beers.length);
+            for (BeerStyle style : BeerStyle.values()) {
+                byStyle.put(style, new BitSet(this.beers.length));
+            }
+
+            for (int i = 0; i < this.beers.length; i++) {
+                BeerDTO beer = this.beers[i];
+                lowerNames[i] = lower(beer.getBeerName());
+                byId.put(beer.getId(), i);
+                if (beer.getUpc() != null) {
+                    byUpc.put(beer.getUpc(), i);
+                }
+                if (beer.getBeerStyle() != null) {
+                    byStyle.get(beer.getBeerStyle()).set(i);
+                }
+            }
+        }
+
+        BeerDTO get(UUID beerId) {
+            Integer ordinal = byId.get(beerId);
+            return ordinal == null ? null : beers[ordinal];
+        }
+
+        private static String lower(String name) {
+            return name == null ? "" : name.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.springframework.spring6resttemplate.client;
 
+import com.springframework.spring6resttemplate.model.BatchResult;
 import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
 import com.springframework.spring6resttemplate.model.BeerStyle;
 import org.springframework.data.domain.Page;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface BeerClient {
 
@@ -12,11 +19,45 @@ public interface BeerClient {
 
     Page<BeerDTO> listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
 
+    //parses the page as it arrives, every beer goes to the consumer and only the paging fields are returned
+    BeerPageMetadata listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize,
+                                          Consumer<BeerDTO> beerConsumer);
+
+    //the page body undecoded, for relaying it as is. Paging fields are filled in as the body is read, close the page when done
+    RawBeerPage listBeersRaw(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
+
+    RawBeerPage listBeersRaw(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize,
+                             int lookaheadBytes);
+
+    //lazily walks every page matching the filters, close the stream to stop fetching early
+    Stream<BeerDTO> streamAllBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageSize);
+
     BeerDTO getBeerById(UUID beerId);
 
+    //looks the beers up in parallel, a failed or timed out id ends up in the failures instead of failing the batch
+    BatchResult<UUID, BeerDTO> getBeersByIds(Collection<UUID> beerIds);
+
+    BatchResult<UUID, BeerDTO> getBeersByIds(Collection<UUID> beerIds, int maxConcurrency, Duration deadline);
+
     BeerDTO createBeer(BeerDTO beerDtoToAdd);
 
+    //sent as the Idempotency-Key header, which makes the POST safe to retry after a transient failure
+    BeerDTO createBeer(BeerDTO beerDtoToAdd, String idempotencyKey);
+
     BeerDTO updateBeer(BeerDTO beerDTO);
 
     void deleteBeer(UUID beerId);
+
+    //bulk writes run concurrently, results are keyed by the position of the beer in the list
+    BatchResult<Integer, BeerDTO> createBeers(List<BeerDTO> beers, ReadBack readBack);
+
+    BatchResult<Integer, BeerDTO> createBeers(List<BeerDTO> beers, ReadBack readBack, int maxConcurrency, Duration deadline);
+
+    BatchResult<UUID, BeerDTO> updateBeers(Collection<BeerDTO> beers, ReadBack readBack);
+
+    BatchResult<UUID, BeerDTO> updateBeers(Collection<BeerDTO> beers, ReadBack readBack, int maxConcurrency, Duration deadline);
+
+    BatchResult<UUID, Void> deleteBeers(Collection<UUID> beerIds);
+
+    BatchResult<UUID, Void> deleteBeers(Collection<UUID> beerIds, int maxConcurrency, Duration deadline);
 }
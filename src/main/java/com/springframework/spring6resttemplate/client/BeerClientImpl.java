@@ -1,27 +1,103 @@
 package com.springframework.spring6resttemplate.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springframework.spring6resttemplate.model.BatchResult;
 import com.springframework.spring6resttemplate.model.BeerDTO;
 import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
 import com.springframework.spring6resttemplate.model.BeerStyle;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-@RequiredArgsConstructor
 @Service
 public class BeerClientImpl implements BeerClient {
 
-    private final RestTemplateBuilder restTemplateBuilder;
+    //RestTemplate is thread safe, build it once and reuse it (and its pooled connections) for every call
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final int prefetchDepth;
+    private final BeerCache beerCache;
+    private final RequestCoalescer requestCoalescer;
+    private final BatchRunner batchRunner;
+    private final BeerClientMetrics metrics;
+    private final BeerClientResilience resilience;
+    private final RequestHedger requestHedger;
 
     public static final String GET_BEER_URL = "/api/v1/beer";
     public static final String GET_BEER_BY_ID_URL = "/api/v1/beer/{beerId}";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final int DEFAULT_PREFETCH_DEPTH = 2;
+    public static final int DEFAULT_BATCH_CONCURRENCY = 16;
+    public static final Duration DEFAULT_BATCH_DEADLINE = Duration.ofSeconds(30);
+    public static final int DEFAULT_RAW_LOOKAHEAD_BYTES = 16 * 1024;
+
+    public BeerClientImpl(RestTemplateBuilder restTemplateBuilder) {
+        this(restTemplateBuilder, new SimpleAsyncTaskExecutor("beer-client-"));
+    }
+
+    private BeerClientImpl(RestTemplateBuilder restTemplateBuilder, Executor executor) {
+        this(restTemplateBuilder, executor, DEFAULT_PREFETCH_DEPTH, new BeerCache(0, Duration.ZERO), new RequestCoalescer(false),
+                new BatchRunner(executor, DEFAULT_BATCH_CONCURRENCY, DEFAULT_BATCH_DEADLINE), new BeerClientMetrics(Metrics.globalRegistry), BeerClientResilience.disabled(),
+                RequestHedger.disabled());
+    }
+
+    @Autowired
+    public BeerClientImpl(RestTemplateBuilder restTemplateBuilder,
+                          @Qualifier("beerClientExecutor") Executor executor,
+                          @Value("${rest.template.paging.prefetchDepth:2}") int prefetchDepth,
+                          BeerCache beerCache,
+                          RequestCoalescer requestCoalescer,
+                          BatchRunner batchRunner,
+                          BeerClientMetrics metrics,
+                          BeerClientResilience resilience,
+                          RequestHedger requestHedger) {
+        this.restTemplate = restTemplateBuilder.build();
+        this.objectMapper = jacksonObjectMapper(restTemplate);
+        this.executor = executor;
+        this.prefetchDepth = prefetchDepth;
+        this.beerCache = beerCache;
+        this.requestCoalescer = requestCoalescer;
+        this.batchRunner = batchRunner;
+        this.metrics = metrics;
+        this.resilience = resilience;
+        this.requestHedger = requestHedger;
+    }
 
     @Override
     public Page<BeerDTO> listBeers() {
@@ -30,8 +106,61 @@ public class BeerClientImpl implements BeerClient {
 
     @Override
     public Page<BeerDTO> listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
+        String listUri = listBeersUri(beerName, beerStyle, showInventory, pageNumber, pageSize);
+
+        return metrics.record("list", () -> requestCoalescer.execute("GET " + listUri, () -> {
+            var pageResponseEntity = requestHedger.execute(baseUrl -> resilience.execute("GET " + GET_BEER_URL, true,
+                    () -> restTemplate.getForEntity(baseUrl + listUri, BeerDTOPageImpl.class))); //url for the spring6-playground repository
+
+            return toPage(pageResponseEntity.getBody());
+        }, BeerClientImpl::copyOf));
+    }
+
+    @Override
+    public BeerPageMetadata listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize,
+                                                 Consumer<BeerDTO> beerConsumer) {
+        String listUri = listBeersUri(beerName, beerStyle, showInventory, pageNumber, pageSize);
+
+        //not retried, the consumer may already have seen part of the page when the connection drops
+        return metrics.record("list", () -> resilience.execute("GET " + GET_BEER_URL, false,
+                () -> restTemplate.execute(listUri, HttpMethod.GET,
+                        request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                        new StreamingBeerPageExtractor(objectMapper, beerConsumer))));
+    }
+
+    @Override
+    public RawBeerPage listBeersRaw(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        return listBeersRaw(beerName, beerStyle, showInventory, pageNumber, pageSize, DEFAULT_RAW_LOOKAHEAD_BYTES);
+    }
+
+    @Override
+    public RawBeerPage listBeersRaw(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize,
+                                    int lookaheadBytes) {
+        URI uri = restTemplate.getUriTemplateHandler().expand(listBeersUri(beerName, beerStyle, showInventory, pageNumber, pageSize));
 
+        //nothing reaches the caller before the lookahead is read, so a failed attempt can still be retried
+        return metrics.record("list.raw", () -> resilience.execute("GET " + GET_BEER_URL, true, () -> {
+            try {
+                ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+                request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                ClientHttpResponse response = request.execute();
+
+                try {
+                    if (restTemplate.getErrorHandler().hasError(response)) {
+                        restTemplate.getErrorHandler().handleError(uri, HttpMethod.GET, response);
+                    }
+                    return RawBeerPage.read(response, objectMapper.getFactory(), lookaheadBytes);
+                } catch (IOException | RuntimeException e) {
+                    response.close();
+                    throw e;
+                }
+            } catch (IOException e) {
+                throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+            }
+        }));
+    }
+
+    private String listBeersUri(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
         UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder.fromPath(GET_BEER_URL);
 
         if(beerName != null){
@@ -54,36 +183,238 @@ public class BeerClientImpl implements BeerClient {
             uriComponentsBuilder.queryParam("pageSize", pageSize);
         }
 
-        ResponseEntity<BeerDTOPageImpl> pageResponseEntity = restTemplate
-                .getForEntity(uriComponentsBuilder.toUriString(), BeerDTOPageImpl.class); //url for the spring6-playground repository
+        return uriComponentsBuilder.toUriString();
+    }
+
+    @Override
+    public Stream<BeerDTO> streamAllBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageSize) {
+        BeerPageIterator iterator = new BeerPageIterator(
+                pageNumber -> listBeersWithFilters(beerName, beerStyle, showInventory, pageNumber, pageSize),
+                executor, prefetchDepth);
 
-        return pageResponseEntity.getBody();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
     }
 
     @Override
     public BeerDTO getBeerById(UUID beerId) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        return restTemplate.getForObject(GET_BEER_BY_ID_URL, BeerDTO.class, beerId);
+        return metrics.record("get", () -> cachedBeer(beerId));
+    }
+
+    private BeerDTO cachedBeer(UUID beerId) {
+        BeerCache.Entry cached = beerCache.get(beerId);
+
+        if (cached != null && beerCache.isFresh(cached)) {
+            beerCache.recordHit();
+            return BeerCache.copyOf(cached.beer());
+        }
+
+        //a disabled cache would report every GET as a miss
+        if (beerCache.isEnabled()) {
+            beerCache.recordMiss();
+        }
+
+        String beerUri = UriComponentsBuilder.fromPath(GET_BEER_BY_ID_URL).build(beerId).toString();
+
+        return requestCoalescer.execute("GET " + beerUri, () -> fetchBeer(beerId, cached), BeerCache::copyOf);
+    }
+
+    //neither coalesced nor served from the cache, a GET that started before the write landed would return the old beer
+    private BeerDTO readAfterWrite(UUID beerId) {
+        return metrics.record("get", () -> fetchBeer(beerId, null));
+    }
+
+    private BeerDTO fetchBeer(UUID beerId, BeerCache.Entry cached) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cached != null && cached.etag() != null) {
+            headers.setIfNoneMatch(cached.etag());
+        }
+
+        ResponseEntity<BeerDTO> response = requestHedger.execute(baseUrl -> resilience.execute("GET " + GET_BEER_BY_ID_URL, true,
+                () -> restTemplate.exchange(baseUrl + GET_BEER_BY_ID_URL, HttpMethod.GET, new HttpEntity<>(headers), BeerDTO.class, beerId)));
+
+        //still the same representation, no body was transferred
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return beerCache.revalidated(cached);
+        }
+
+        beerCache.put(response.getBody(), response.getHeaders().getETag());
+        return response.getBody();
+    }
+
+    @Override
+    public BatchResult<UUID, BeerDTO> getBeersByIds(Collection<UUID> beerIds) {
+        return batchRunner.run(beerIds, this::getBeerById);
+    }
+
+    @Override
+    public BatchResult<UUID, BeerDTO> getBeersByIds(Collection<UUID> beerIds, int maxConcurrency, Duration deadline) {
+        return batchRunner.run(beerIds, this::getBeerById, maxConcurrency, deadline);
     }
 
     @Override
     public BeerDTO createBeer(BeerDTO beerDtoToAdd) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
+        return createBeer(beerDtoToAdd, null);
+    }
 
-        URI uri = restTemplate.postForLocation(GET_BEER_URL, beerDtoToAdd);
-        return restTemplate.getForObject(uri.getPath(), BeerDTO.class);
+    @Override
+    public BeerDTO createBeer(BeerDTO beerDtoToAdd, String idempotencyKey) {
+        return metrics.record("create", () -> {
+            URI uri = postBeer(beerDtoToAdd, idempotencyKey);
+
+            ResponseEntity<BeerDTO> response = resilience.execute("GET " + GET_BEER_BY_ID_URL, true,
+                    () -> restTemplate.getForEntity(uri.getPath(), BeerDTO.class));
+            beerCache.put(response.getBody(), response.getHeaders().getETag());
+            return response.getBody();
+        });
     }
 
     @Override
     public BeerDTO updateBeer(BeerDTO beerDTO) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        restTemplate.put(GET_BEER_BY_ID_URL, beerDTO, beerDTO.getId());
-        return getBeerById(beerDTO.getId());
+        return metrics.record("update", () -> {
+            //drop the entry first, the follow up read has to see the new state
+            beerCache.invalidate(beerDTO.getId());
+            putBeer(beerDTO);
+            return readAfterWrite(beerDTO.getId());
+        });
     }
 
     @Override
     public void deleteBeer(UUID beerId) {
-        RestTemplate restTemplate = restTemplateBuilder.build();
-        restTemplate.delete(GET_BEER_BY_ID_URL, beerId);
+        metrics.record("delete", () -> {
+            beerCache.invalidate(beerId);
+            resilience.execute("DELETE " + GET_BEER_BY_ID_URL, true, () -> {
+                restTemplate.delete(GET_BEER_BY_ID_URL, beerId);
+                return null;
+            });
+        });
+    }
+
+    //a POST is only repeated when the server can recognise the retry by its idempotency key
+    private URI postBeer(BeerDTO beer, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return resilience.execute("POST " + GET_BEER_URL, false, () -> restTemplate.postForLocation(GET_BEER_URL, beer));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        return resilience.execute("POST " + GET_BEER_URL, true,
+                () -> restTemplate.postForLocation(GET_BEER_URL, new HttpEntity<>(beer, headers)));
+    }
+
+    private void putBeer(BeerDTO beer) {
+        resilience.execute("PUT " + GET_BEER_BY_ID_URL, true, () -> {
+            restTemplate.put(GET_BEER_BY_ID_URL, beer, beer.getId());
+            return null;
+        });
+    }
+
+    @Override
+    public BatchResult<Integer, BeerDTO> createBeers(List<BeerDTO> beers, ReadBack readBack) {
+        return createBeers(beers, readBack, batchRunner.getDefaultConcurrency(), batchRunner.getDefaultDeadline());
+    }
+
+    @Override
+    public BatchResult<Integer, BeerDTO> createBeers(List<BeerDTO> beers, ReadBack readBack, int maxConcurrency, Duration deadline) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        List<Integer> positions = IntStream.range(0, beers.size()).boxed().toList();
+
+        BatchResult<Integer, BeerDTO> written = batchRunner.run(positions, position -> metrics.record("create", () -> {
+            BeerDTO created = BeerCache.copyOf(beers.get(position));
+            URI uri = postBeer(created, null);
+            created.setId(beerIdFromLocation(uri));
+
+            return readBack == ReadBack.IMMEDIATE ? readAfterWrite(created.getId()) : created;
+        }), maxConcurrency, deadline);
+
+        return readBack == ReadBack.DEFERRED ? readBack(written, maxConcurrency, deadlineNanos) : written;
+    }
+
+    @Override
+    public BatchResult<UUID, BeerDTO> updateBeers(Collection<BeerDTO> beers, ReadBack readBack) {
+        return updateBeers(beers, readBack, batchRunner.getDefaultConcurrency(), batchRunner.getDefaultDeadline());
+    }
+
+    @Override
+    public BatchResult<UUID, BeerDTO> updateBeers(Collection<BeerDTO> beers, ReadBack readBack, int maxConcurrency, Duration deadline) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        //one result per id, a second update of the same beer would otherwise vanish from it
+        Map<UUID, BeerDTO> beersById = new LinkedHashMap<>();
+        for (BeerDTO beer : beers) {
+            if (beersById.putIfAbsent(beer.getId(), beer) != null) {
+                throw new IllegalArgumentException("Beer " + beer.getId() + " is updated more than once in the batch");
+            }
+        }
+
+        BatchResult<UUID, BeerDTO> written = batchRunner.run(beersById.keySet(), beerId -> metrics.record("update", () -> {
+            BeerDTO beer = beersById.get(beerId);
+            beerCache.invalidate(beerId);
+            putBeer(beer);
+
+            return readBack == ReadBack.IMMEDIATE ? readAfterWrite(beerId) : BeerCache.copyOf(beer);
+        }), maxConcurrency, deadline);
+
+        return readBack == ReadBack.DEFERRED ? readBack(written, maxConcurrency, deadlineNanos) : written;
+    }
+
+    @Override
+    public BatchResult<UUID, Void> deleteBeers(Collection<UUID> beerIds) {
+        return deleteBeers(beerIds, batchRunner.getDefaultConcurrency(), batchRunner.getDefaultDeadline());
+    }
+
+    @Override
+    public BatchResult<UUID, Void> deleteBeers(Collection<UUID> beerIds, int maxConcurrency, Duration deadline) {
+        return batchRunner.run(beerIds, beerId -> {
+            deleteBeer(beerId);
+            return null;
+        }, maxConcurrency, deadline);
+    }
+
+    //reads every written beer back in one parallel batch, a failed read is reported even though the write went through.
+    //writes still in flight stay in flight, their future has the beer as written and not read back. The reads only get
+    //what the writes left of the deadline
+    private <K> BatchResult<K, BeerDTO> readBack(BatchResult<K, BeerDTO> written, int maxConcurrency, long deadlineNanos) {
+        Map<UUID, K> keysById = new LinkedHashMap<>();
+        written.getSuccesses().forEach((key, beer) -> keysById.put(beer.getId(), key));
+
+        Duration remaining = Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+        BatchResult<UUID, BeerDTO> read = batchRunner.run(keysById.keySet(), this::readAfterWrite, maxConcurrency, remaining);
+
+        Map<K, BeerDTO> successes = new LinkedHashMap<>();
+        Map<K, Exception> failures = new LinkedHashMap<>(written.getFailures());
+        read.getSuccesses().forEach((beerId, beer) -> successes.put(keysById.get(beerId), beer));
+        read.getFailures().forEach((beerId, failure) -> failures.put(keysById.get(beerId),
+                new IllegalStateException("Beer " + beerId + " was written but could not be read back", failure)));
+
+        Map<K, CompletableFuture<BeerDTO>> inFlight = new LinkedHashMap<>(written.getInFlight());
+        read.getInFlight().forEach((beerId, reading) -> inFlight.put(keysById.get(beerId), reading));
+
+        return new BatchResult<>(successes, failures, inFlight, written.getElapsed().plus(read.getElapsed()));
+    }
+
+    private static UUID beerIdFromLocation(URI location) {
+        String path = location.getPath();
+        return UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    //BeerDTOPageImpl is a page of beers whatever its type argument, the class literal only gives the raw type
+    private static Page<BeerDTO> toPage(BeerDTOPageImpl<?> page) {
+        return page;
+    }
+
+    //a coalesced page is shared between callers, every extra caller gets its own beers
+    private static Page<BeerDTO> copyOf(Page<BeerDTO> page) {
+        return new BeerDTOPageImpl<>(page.getContent().stream().map(BeerCache::copyOf).toList(),
+                page.getPageable(), page.getTotalElements());
+    }
+
+    //same mapper the RestTemplate json converter uses, so the streaming path decodes exactly like getForEntity
+    private static ObjectMapper jacksonObjectMapper(RestTemplate restTemplate) {
+        return restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseGet(() -> new ObjectMapper().findAndRegisterModules());
     }
 }
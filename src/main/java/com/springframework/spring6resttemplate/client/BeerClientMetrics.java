@@ -0,0 +1,84 @@
+package com.springframework.spring6resttemplate.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * times every BeerClient operation end to end (token, network and json together) as beer.client.operation, tagged
+ * with the operation name, the outcome and the http status of the failure. Histograms are switched on through
+ * management.metrics.distribution.percentiles-histogram, so the recording itself stays a clock read and a map lookup.
+ * Each timer is registered once per tag set and kept here
+ */
+@Component
+public class BeerClientMetrics {
+    public static final String OPERATION_TIMER = "beer.client.operation";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerTags, Timer> timers = new ConcurrentHashMap<>();
+
+    public BeerClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Throwable failure = null;
+
+        try {
+            return call.get();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            sample.stop(timers.computeIfAbsent(new TimerTags(operation, outcome(failure), status(failure)),
+                    tags -> Timer.builder(OPERATION_TIMER)
+                            .description("BeerClient calls, including cache hits and the read back of writes")
+                            .tags("operation", tags.operation(), "outcome", tags.outcome(), "status", tags.status())
+                            .register(meterRegistry)));
+        }
+    }
+
+    public void record(String operation, Runnable call) {
+        record(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "SUCCESS";
+        }
+        if (failure instanceof RestClientResponseException responseException) {
+            int status = responseException.getStatusCode().value();
+            if (status >= 400 && status < 500) {
+                return "CLIENT_ERROR";
+            }
+            if (status >= 500) {
+                return "SERVER_ERROR";
+            }
+        }
+        return "UNKNOWN";
+    }
+
+    //successful calls can be a 200, 201, 204 or a revalidated 304, they are grouped to keep the tag cardinality low
+    private static String status(Throwable failure) {
+        if (failure == null) {
+            return "2xx";
+        }
+        if (failure instanceof RestClientResponseException responseException) {
+            return String.valueOf(responseException.getStatusCode().value());
+        }
+        //timeouts, refused connections, broken json
+        return "IO_ERROR";
+    }
+
+    private record TimerTags(String operation, String outcome, String status) {
+    }
+}
@@ -0,0 +1,246 @@
+package com.springframework.spring6resttemplate.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * wraps every http call BeerClientImpl makes. A bulkhead caps the calls in flight and fails fast when it is full,
+ * each endpoint (method plus uri template) gets its own circuit breaker, and transient failures (5xx, 429, IO errors)
+ * of idempotent calls are retried with exponential backoff and full jitter, or after Retry-After when the service
+ * sent one, until maxAttempts or the deadline is reached. A single attempt is still bounded by the http client read
+ * timeout, the deadline only stops new attempts
+ */
+@Component
+public class BeerClientResilience {
+    public static final String TRANSITIONS = "beer.client.breaker.transitions";
+    public static final String RETRIES = "beer.client.retries";
+    public static final String REJECTIONS = "beer.client.rejections";
+
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int breakerWindowSize;
+    private final int breakerFailureRateThreshold;
+    private final Duration breakerOpenDuration;
+    private final Duration deadline;
+    private final Semaphore bulkhead;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BeerClientResilience(@Value("${rest.template.resilience.enabled:true}") boolean enabled,
+                                @Value("${rest.template.resilience.retry.maxAttempts:3}") int maxAttempts,
+                                @Value("${rest.template.resilience.retry.initialBackoff:100ms}") Duration initialBackoff,
+                                @Value("${rest.template.resilience.retry.maxBackoff:2s}") Duration maxBackoff,
+                                @Value("${rest.template.resilience.breaker.windowSize:20}") int breakerWindowSize,
+                                @Value("${rest.template.resilience.breaker.failureRateThreshold:50}") int breakerFailureRateThreshold,
+                                @Value("${rest.template.resilience.breaker.openDuration:30s}") Duration breakerOpenDuration,
+                                @Value("${rest.template.resilience.bulkhead.maxConcurrent:64}") int bulkheadMaxConcurrent,
+                                @Value("${rest.template.resilience.deadline:10s}") Duration deadline,
+                                MeterRegistry meterRegistry) {
+        this(enabled, maxAttempts, initialBackoff, maxBackoff, breakerWindowSize, breakerFailureRateThreshold,
+                breakerOpenDuration, bulkheadMaxConcurrent, deadline, meterRegistry, Clock.systemUTC());
+    }
+
+    public BeerClientResilience(boolean enabled, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                                int breakerWindowSize, int breakerFailureRateThreshold, Duration breakerOpenDuration,
+                                int bulkheadMaxConcurrent, Duration deadline, MeterRegistry meterRegistry, Clock clock) {
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.breakerWindowSize = breakerWindowSize;
+        this.breakerFailureRateThreshold = breakerFailureRateThreshold;
+        this.breakerOpenDuration = breakerOpenDuration;
+        this.deadline = deadline;
+        this.bulkhead = new Semaphore(bulkheadMaxConcurrent);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    //pass through, used when BeerClientImpl is built by hand
+    public static BeerClientResilience disabled() {
+        return new BeerClientResilience(false, 1, Duration.ZERO, Duration.ZERO, 1, 100, Duration.ZERO,
+                Integer.MAX_VALUE, Duration.ZERO, Metrics.globalRegistry, Clock.systemUTC());
+    }
+
+    //retryable has to be false for calls that are not safe to repeat, such as a POST without an idempotency key
+    public <T> T execute(String endpoint, boolean retryable, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        CircuitBreaker breaker = breakers.computeIfAbsent(endpoint, this::newBreaker);
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        if (!bulkhead.tryAcquire()) {
+            reject(endpoint, "bulkhead");
+            throw new CallNotPermittedException("Too many concurrent calls, rejected " + endpoint);
+        }
+
+        RuntimeException lastFailure = null;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                if (!breaker.tryAcquire()) {
+                    reject(endpoint, "breaker");
+                    //the breaker opened on our own failures, report what actually went wrong
+                    if (lastFailure != null) {
+                        throw lastFailure;
+                    }
+                    throw new CallNotPermittedException("Circuit breaker open for " + endpoint);
+                }
+
+                try {
+                    T result = call.get();
+                    breaker.onSuccess();
+                    return result;
+                } catch (RuntimeException e) {
+                    //a hedge loser cancelled by RequestHedger, or a call the client limiter refused locally. Neither
+                    //says anything about the endpoint, a half open trial must not be decided by them
+                    if (e instanceof CallNotPermittedException || Thread.currentThread().isInterrupted()) {
+                        breaker.onIgnored();
+                        throw e;
+                    }
+
+                    boolean transientFailure = isTransient(e);
+
+                    //a 404 or 400 says nothing about the health of the endpoint
+                    if (transientFailure) {
+                        breaker.onFailure();
+                    } else {
+                        breaker.onSuccess();
+                    }
+
+                    //the service said when to come back, waiting less would only earn another 429 or 503
+                    long backoffNanos = backoffNanos(attempt);
+                    Duration retryAfter = e instanceof HttpStatusCodeException statusCodeException
+                            ? retryAfter(statusCodeException.getResponseHeaders(), clock) : null;
+                    if (retryAfter != null) {
+                        backoffNanos = Math.max(backoffNanos, retryAfter.toNanos());
+                    }
+
+                    if (!retryable || !transientFailure || attempt >= maxAttempts
+                            || System.nanoTime() + backoffNanos > deadlineNanos) {
+                        throw e;
+                    }
+
+                    lastFailure = e;
+                    retries(endpoint).increment();
+                    sleep(backoffNanos, e);
+                } catch (Error e) {
+                    //says nothing about the endpoint, but a half open trial must not stay taken forever
+                    breaker.onIgnored();
+                    throw e;
+                }
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker.State getBreakerState(String endpoint) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    public int availableBulkheadPermits() {
+        return bulkhead.availablePermits();
+    }
+
+    static boolean isTransient(RuntimeException e) {
+        if (e instanceof ResourceAccessException || e instanceof HttpServerErrorException) {
+            return true;
+        }
+        return e instanceof HttpStatusCodeException statusCodeException
+                && statusCodeException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * Retry-After as delay seconds or an http date, null when the header is missing or cannot be read
+     */
+    public static Duration retryAfter(HttpHeaders headers, Clock clock) {
+        String retryAfter = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null) {
+            return null;
+        }
+
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Instant until = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration delay = Duration.between(clock.instant(), until);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    //full jitter, a random wait between zero and the exponential cap, so clients that failed together do not retry together
+    private long backoffNanos(int attempt) {
+        long cap = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(attempt - 1, 30));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static void sleep(long nanos, RuntimeException failure) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    private CircuitBreaker newBreaker(String endpoint) {
+        CircuitBreaker breaker = new CircuitBreaker(breakerWindowSize, breakerFailureRateThreshold, breakerOpenDuration, clock,
+                state -> Counter.builder(TRANSITIONS)
+                        .description("Circuit breaker state changes")
+                        .tags("endpoint", endpoint, "state", state.name())
+                        .register(meterRegistry)
+                        .increment());
+
+        Gauge.builder("beer.client.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("0 closed, 1 open, 2 half open")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return breaker;
+    }
+
+    private Counter retries(String endpoint) {
+        return Counter.builder(RETRIES).tag("endpoint", endpoint).register(meterRegistry);
+    }
+
+    private void reject(String endpoint, String reason) {
+        Counter.builder(REJECTIONS)
+                .description("Calls refused locally without reaching the beer service")
+                .tags("endpoint", endpoint, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
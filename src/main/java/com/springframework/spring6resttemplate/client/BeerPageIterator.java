@@ -0,0 +1,122 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+/**
+ * walks every page of a beer listing lazily. While the caller consumes one page the next ones (up to prefetchDepth)
+ * are fetched in the background, so at most prefetchDepth + 1 pages are held in memory. Pages are only requested
+ * once the first response told us how many there are. {@link #close()} requests no further pages and drops the
+ * prefetches that have not started yet, but up to prefetchDepth GETs already on the wire still run to completion
+ * (bounded by the read timeout) and hold their pooled connection until then, their pages are discarded
+ */
+class BeerPageIterator implements Iterator<BeerDTO>, AutoCloseable {
+
+    private final IntFunction<Page<BeerDTO>> pageFetcher;
+    private final Executor executor;
+    private final int prefetchDepth;
+    private final Deque<CompletableFuture<Page<BeerDTO>>> inFlight = new ArrayDeque<>();
+
+    private Iterator<BeerDTO> current = Collections.emptyIterator();
+    //page numbers are 1 based on the beer service query string
+    private int nextPageNumber = 1;
+    private int totalPages = -1;
+    private boolean closed;
+
+    BeerPageIterator(IntFunction<Page<BeerDTO>> pageFetcher, Executor executor, int prefetchDepth) {
+        this.pageFetcher = pageFetcher;
+        this.executor = executor;
+        this.prefetchDepth = Math.max(1, prefetchDepth);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            Page<BeerDTO> page = nextPage();
+
+            if (page == null) {
+                return false;
+            }
+            current = page.getContent().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public BeerDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        //a cancelled supplyAsync never calls the fetcher, one that is already running is not interrupted
+        inFlight.forEach(future -> future.cancel(true));
+        inFlight.clear();
+        current = Collections.emptyIterator();
+    }
+
+    private Page<BeerDTO> nextPage() {
+        if (closed) {
+            return null;
+        }
+
+        if (inFlight.isEmpty()) {
+            if (!hasMorePages()) {
+                return null;
+            }
+            requestNextPage();
+        }
+
+        Page<BeerDTO> page = await(inFlight.poll());
+
+        if (totalPages < 0) {
+            totalPages = page.getTotalPages();
+        }
+
+        if (page.isEmpty() || page.isLast()) {
+            //anything still in flight is past the end
+            totalPages = Math.min(totalPages, nextPageNumber - inFlight.size() - 1);
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
+        }
+
+        while (inFlight.size() < prefetchDepth && hasMorePages()) {
+            requestNextPage();
+        }
+        return page;
+    }
+
+    private boolean hasMorePages() {
+        return totalPages < 0 ? nextPageNumber == 1 : nextPageNumber <= totalPages;
+    }
+
+    private void requestNextPage() {
+        int pageNumber = nextPageNumber++;
+        inFlight.add(CompletableFuture.supplyAsync(() -> pageFetcher.apply(pageNumber), executor));
+    }
+
+    private static Page<BeerDTO> await(CompletableFuture<Page<BeerDTO>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
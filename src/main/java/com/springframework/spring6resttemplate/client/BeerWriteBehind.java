@@ -0,0 +1,373 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BatchResult;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * buffers updateBeer calls per beer for a short window and writes only the last one. An update arriving while another
+ * one for the same beer is buffered replaces it unless its version is lower (last writer wins), and every caller of
+ * the merged updates gets the same outcome once the winning write is done. The flusher hands due updates to writer
+ * threads as {@link BeerClient#updateBeers} batches while fewer than maxConcurrency writes are in flight, so a slow
+ * batch does not hold back beers that become due after it. A beer whose write is still in flight (even past
+ * flushTimeout) is not written again until that write ends, so two writes for one beer never race. A full buffer is
+ * flushed at once and new beers wait up to maxWait for room before they are rejected. Stopping flushes whatever is
+ * left. Reads do not see buffered updates until their write is done
+ */
+@Component
+@ConditionalOnProperty(name = "rest.template.writeBehind.enabled", havingValue = "true")
+public class BeerWriteBehind implements SmartLifecycle {
+
+    private final BeerClient beerClient;
+    private final Duration window;
+    private final int maxPending;
+    private final int maxConcurrency;
+    private final Duration maxWait;
+    private final Duration flushTimeout;
+    private final ReadBack readBack;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    //insertion order is the order beers were first buffered in, so the head is always the next one due
+    private final LinkedHashMap<UUID, Pending> buffered = new LinkedHashMap<>();
+    //handed to a writer and not finished yet, at most maxConcurrency
+    private final Map<UUID, Pending> writing = new HashMap<>();
+    private boolean flushAll;
+    private boolean running;
+    private Thread flusher;
+    private ThreadPoolExecutor writers;
+
+    @Autowired
+    public BeerWriteBehind(BeerClient beerClient,
+                           @Value("${rest.template.writeBehind.window:100ms}") Duration window,
+                           @Value("${rest.template.writeBehind.maxPending:10000}") int maxPending,
+                           @Value("${rest.template.writeBehind.maxConcurrency:16}") int maxConcurrency,
+                           @Value("${rest.template.writeBehind.maxWait:1s}") Duration maxWait,
+                           @Value("${rest.template.writeBehind.flushTimeout:30s}") Duration flushTimeout,
+                           @Value("${rest.template.writeBehind.readBack:NONE}") ReadBack readBack,
+                           MeterRegistry meterRegistry) {
+        this.beerClient = beerClient;
+        this.window = window;
+        this.maxPending = maxPending;
+        this.maxConcurrency = maxConcurrency;
+        this.maxWait = maxWait;
+        this.flushTimeout = flushTimeout;
+        this.readBack = readBack;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("beer.client.writebehind.pending", this, BeerWriteBehind::size)
+                .description("Beers with an update waiting to be written").register(meterRegistry);
+    }
+
+    /**
+     * buffers the update, the future completes with the written beer (read back as configured) once the service has
+     * accepted it, or with the failure of that write. Throws {@link CallNotPermittedException} when the buffer stayed
+     * full for maxWait or is stopped
+     */
+    public CompletableFuture<BeerDTO> updateBeer(BeerDTO beerDTO) {
+        long deadlineNanos = System.nanoTime() + maxWait.toNanos();
+        Pending pending;
+
+        lock.lock();
+        try {
+            pending = buffered.get(beerDTO.getId());
+
+            while (pending == null && buffered.size() >= maxPending) {
+                if (!running) {
+                    break;
+                }
+                //flush early instead of letting callers wait out the window
+                flushAll = true;
+                changed.signal();
+
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    throw reject("buffer_full");
+                }
+                notFull.awaitNanos(remaining);
+                pending = buffered.get(beerDTO.getId());
+            }
+            if (!running) {
+                throw reject("stopped");
+            }
+
+            if (pending == null) {
+                pending = new Pending(BeerCache.copyOf(beerDTO), System.nanoTime() + window.toNanos());
+                buffered.put(beerDTO.getId(), pending);
+                changed.signal();
+            } else {
+                if (!isOlder(beerDTO, pending.beer)) {
+                    pending.beer = BeerCache.copyOf(beerDTO);
+                }
+                count("coalesced", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("interrupted");
+        } finally {
+            lock.unlock();
+        }
+
+        //callers merged into one write must not share the instance
+        return pending.written.thenApply(BeerCache::copyOf);
+    }
+
+    //writes everything buffered now, the future completes when those writes are done
+    public CompletableFuture<Void> flush() {
+        lock.lock();
+        try {
+            flushAll = true;
+            changed.signal();
+            return CompletableFuture.allOf(Stream.concat(buffered.values().stream(), writing.values().stream())
+                    .map(pending -> pending.written.handle((beer, failure) -> null))
+                    .toArray(CompletableFuture[]::new));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return buffered.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-write-behind-");
+            threadFactory.setDaemon(true);
+            //a finished batch frees its beers before its thread is back in the pool, the queue covers that gap
+            writers = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+            writers.allowCoreThreadTimeOut(true);
+            ThreadPoolExecutor batchWriters = writers;
+            flusher = threadFactory.newThread(() -> flushLoop(batchWriters));
+            flusher.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //new updates are rejected from here on, the flusher writes what is left, waits for the writes and then exits
+    @Override
+    public void stop() {
+        Thread stopping;
+        ThreadPoolExecutor stoppingWriters;
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            changed.signal();
+            notFull.signalAll();
+            stopping = flusher;
+            stoppingWriters = writers;
+            flusher = null;
+            writers = null;
+        } finally {
+            lock.unlock();
+        }
+
+        //a batch that was already running plus the final one
+        try {
+            stopping.join(flushTimeout.multipliedBy(2).toMillis() + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //out of time, whatever the flusher has not handed out yet fails instead of being dropped silently
+        stopping.interrupt();
+        stoppingWriters.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop(ThreadPoolExecutor batchWriters) {
+        List<Pending> due;
+        while ((due = awaitDue()) != null) {
+            List<Pending> batch = due;
+            try {
+                batchWriters.execute(() -> write(batch));
+            } catch (RejectedExecutionException e) {
+                //a stop that ran out of time already shut the writers down
+                batch.forEach(pending -> finish(pending, null,
+                        new CallNotPermittedException("Beer write behind stopped before the update was written")));
+            }
+        }
+    }
+
+    //null once stopped with nothing left to write and no write in flight
+    private List<Pending> awaitDue() {
+        lock.lock();
+        try {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return abandonBuffered();
+                }
+
+                boolean all = flushAll || !running;
+                long now = System.nanoTime();
+                long waitNanos = Long.MAX_VALUE;
+                boolean blocked = false;
+                List<Pending> due = new ArrayList<>();
+
+                for (Iterator<Pending> it = buffered.values().iterator(); it.hasNext(); ) {
+                    Pending pending = it.next();
+                    if (!all && pending.dueNanos - now > 0) {
+                        waitNanos = pending.dueNanos - now;
+                        break;
+                    }
+                    //waits for the earlier write of the same beer or for a free slot, both signal changed
+                    if (writing.containsKey(pending.beer.getId()) || writing.size() >= maxConcurrency) {
+                        blocked = true;
+                        continue;
+                    }
+                    due.add(pending);
+                    writing.put(pending.beer.getId(), pending);
+                    it.remove();
+                }
+                flushAll &= blocked;
+
+                if (!due.isEmpty()) {
+                    notFull.signalAll();
+                    return due;
+                }
+                if (!running && buffered.isEmpty() && writing.isEmpty()) {
+                    return null;
+                }
+
+                if (waitNanos == Long.MAX_VALUE) {
+                    changed.await();
+                } else {
+                    changed.awaitNanos(waitNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return abandonBuffered();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //only a stop that ran out of time interrupts the flusher
+    private List<Pending> abandonBuffered() {
+        buffered.values().forEach(pending -> pending.written.completeExceptionally(
+                new CallNotPermittedException("Beer write behind stopped before the update was written")));
+        count("failed", buffered.size());
+        buffered.clear();
+        notFull.signalAll();
+        return null;
+    }
+
+    private void write(List<Pending> due) {
+        Map<UUID, Pending> byId = new LinkedHashMap<>();
+        due.forEach(pending -> byId.put(pending.beer.getId(), pending));
+
+        try {
+            BatchResult<UUID, BeerDTO> result = beerClient.updateBeers(
+                    due.stream().map(pending -> pending.beer).toList(), readBack, due.size(), flushTimeout);
+
+            result.getSuccesses().forEach((beerId, beer) -> finish(byId.get(beerId), beer, null));
+            result.getFailures().forEach((beerId, failure) -> finish(byId.get(beerId), null, failure));
+            //still running at flushTimeout, the write may yet land so the beer stays in flight until it ends
+            result.getInFlight().forEach((beerId, late) -> late.whenComplete(
+                    (beer, failure) -> finish(byId.get(beerId), beer, failure)));
+        } catch (RuntimeException e) {
+            due.forEach(pending -> finish(pending, null, e));
+        }
+    }
+
+    //completes the callers before the beer is free again, so a stop that saw nothing in flight has no callers waiting
+    private void finish(Pending pending, BeerDTO beer, Throwable failure) {
+        if (failure == null) {
+            pending.written.complete(beer);
+            count("written", 1);
+        } else {
+            pending.written.completeExceptionally(failure);
+            count("failed", 1);
+        }
+
+        lock.lock();
+        try {
+            writing.remove(pending.beer.getId(), pending);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //a version lower than the buffered one is a stale write, beers without a version just replace each other
+    private static boolean isOlder(BeerDTO incoming, BeerDTO buffered) {
+        return incoming.getVersion() != null && buffered.getVersion() != null
+                && incoming.getVersion() < buffered.getVersion();
+    }
+
+    private CallNotPermittedException reject(String reason) {
+        count("rejected", 1);
+        return new CallNotPermittedException("Beer write behind buffer refused the update (" + reason + ")");
+    }
+
+    private void count(String result, int amount) {
+        if (amount > 0) {
+            Counter.builder("beer.client.writebehind.updates").tag("result", result).register(meterRegistry).increment(amount);
+        }
+    }
+
+    private static class Pending {
+        final CompletableFuture<BeerDTO> written = new CompletableFuture<>();
+        final long dueNanos;
+        BeerDTO beer;
+
+        Pending(BeerDTO beer, long dueNanos) {
+            this.beer = beer;
+            this.dueNanos = dueNanos;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.springframework.spring6resttemplate.client;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * the call was refused locally, without reaching the beer service, because its circuit breaker is open or the
+ * bulkhead is full
+ */
+public class CallNotPermittedException extends RestClientException {
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,130 @@
+package com.springframework.spring6resttemplate.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * count based circuit breaker for one endpoint. It opens when the failure rate over the last windowSize calls reaches
+ * the threshold, rejects calls while open, and after openDuration lets a single trial call through (half open) to
+ * decide whether to close again
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int failureRateThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+    private final Consumer<State> transitionListener;
+
+    //ring buffer of the last outcomes, true is a failure
+    private final boolean[] outcomes;
+    private int recorded;
+    private int failures;
+    private int next;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int windowSize, int failureRateThreshold, Duration openDuration, Clock clock,
+                          Consumer<State> transitionListener) {
+        this.windowSize = windowSize;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+        this.transitionListener = transitionListener;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    //false means the call must not be made
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            reset();
+            transitionTo(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            open();
+            return;
+        }
+        record(true);
+
+        if (recorded == windowSize && failures * 100 >= failureRateThreshold * windowSize) {
+            open();
+        }
+    }
+
+    //the call ended without telling anything about the endpoint, only gives the half open trial back
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            //drop the oldest outcome
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        openedAt = clock.instant();
+        reset();
+        transitionTo(State.OPEN);
+    }
+
+    private void reset() {
+        recorded = 0;
+        failures = 0;
+        next = 0;
+    }
+
+    private void transitionTo(State newState) {
+        if (state != newState) {
+            state = newState;
+            transitionListener.accept(newState);
+        }
+    }
+}
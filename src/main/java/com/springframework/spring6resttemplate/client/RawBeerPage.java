@@ -0,0 +1,185 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * a beer list response body exactly as the beer service sent it (after transport decompression), for callers that
+ * only relay it. The paging fields are picked up by a non blocking parser fed with the same bytes as they are relayed,
+ * beers are tokenized there but never bound. Holds the pooled connection until closed
+ */
+public final class RawBeerPage implements Closeable {
+    private final ClientHttpResponse response;
+    private final InputStream body;
+    private volatile BeerPageMetadata metadata;
+    private PagingScanner scanner;
+
+    private RawBeerPage(ClientHttpResponse response, InputStream upstream, byte[] lookahead, JsonFactory jsonFactory) throws IOException {
+        this.response = response;
+        this.scanner = jsonFactory.canParseAsync() ? new PagingScanner(jsonFactory.createNonBlockingByteArrayParser()) : null;
+        this.body = new SequenceInputStream(new ByteArrayInputStream(lookahead), new ScanningInputStream(upstream));
+
+        scan(lookahead, 0, lookahead.length);
+    }
+
+    static RawBeerPage read(ClientHttpResponse response, JsonFactory jsonFactory, int lookaheadBytes) throws IOException {
+        InputStream upstream = response.getBody();
+        byte[] lookahead = upstream.readNBytes(lookaheadBytes);
+
+        return new RawBeerPage(response, upstream, lookahead, jsonFactory);
+    }
+
+    /**
+     * the paging fields, known right away when they are within the lookahead and otherwise once the body has been
+     * read past them. Spring data writes them behind the content, so for most pages that is after {@link #transferTo}.
+     * Null until then, or when the body is not a page
+     */
+    public BeerPageMetadata getMetadata() {
+        return metadata;
+    }
+
+    public MediaType getContentType() {
+        return response.getHeaders().getContentType();
+    }
+
+    //-1 when the length is unknown, chunked or decompressed responses
+    public long getContentLength() {
+        return response.getHeaders().getContentLength();
+    }
+
+    //the whole body, starting with the bytes already read for the lookahead
+    public InputStream getBody() {
+        return body;
+    }
+
+    public long transferTo(OutputStream out) throws IOException {
+        return body.transferTo(out);
+    }
+
+    @Override
+    public void close() {
+        response.close();
+    }
+
+    //only ever called by the thread reading the body
+    private void scan(byte[] bytes, int offset, int length) {
+        if (scanner == null || length <= 0) {
+            return;
+        }
+        try {
+            BeerPageMetadata scanned = scanner.feed(bytes, offset, length);
+            if (scanned != null) {
+                metadata = scanned;
+                stopScanning();
+            }
+        } catch (IOException e) {
+            //not a page we understand, the bytes are still relayed as they are
+            stopScanning();
+        }
+    }
+
+    private void stopScanning() {
+        if (scanner != null) {
+            scanner.close();
+            scanner = null;
+        }
+    }
+
+    private class ScanningInputStream extends FilterInputStream {
+
+        ScanningInputStream(InputStream upstream) {
+            super(upstream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                scan(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            scan(buffer, offset, read);
+            return read;
+        }
+    }
+
+    //tracks the top level number, size and totalElements fields of the page object across fed chunks
+    private static class PagingScanner {
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private int depth;
+        private String field;
+        private Integer number;
+        private Integer size;
+        private Long totalElements;
+
+        PagingScanner(JsonParser parser) {
+            this.parser = parser;
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        //the metadata once all three fields were seen, null while some are still missing
+        BeerPageMetadata feed(byte[] bytes, int offset, int length) throws IOException {
+            feeder.feedInput(bytes, offset, offset + length);
+
+            JsonToken token;
+            //the feeder only takes more input once everything fed so far is parsed
+            while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                switch (token) {
+                    case START_OBJECT, START_ARRAY -> {
+                        if (depth == 0 && token == JsonToken.START_ARRAY) {
+                            throw new IOException("Beer page body is not an object");
+                        }
+                        depth++;
+                        field = null;
+                    }
+                    case END_OBJECT, END_ARRAY -> depth--;
+                    case FIELD_NAME -> field = depth == 1 ? parser.getCurrentName() : null;
+                    case VALUE_NUMBER_INT -> {
+                        if (depth == 1 && field != null) {
+                            switch (field) {
+                                case "number" -> number = parser.getIntValue();
+                                case "size" -> size = parser.getIntValue();
+                                case "totalElements" -> totalElements = parser.getLongValue();
+                                default -> { }
+                            }
+                        }
+                        field = null;
+                    }
+                    default -> field = null;
+                }
+
+                if (number != null && size != null && totalElements != null) {
+                    return new BeerPageMetadata(number, size, totalElements);
+                }
+            }
+            return null;
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                //nothing to release, the parser never owned the bytes
+            }
+        }
+    }
+}
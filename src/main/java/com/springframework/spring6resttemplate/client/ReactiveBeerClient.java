@@ -0,0 +1,26 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * non blocking version of {@link BeerClient}, list results are emitted one beer at a time as the subscriber asks for them
+ */
+public interface ReactiveBeerClient {
+
+    Flux<BeerDTO> listBeers();
+
+    Flux<BeerDTO> listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
+
+    Mono<BeerDTO> getBeerById(UUID beerId);
+
+    Mono<BeerDTO> createBeer(BeerDTO beerDtoToAdd);
+
+    Mono<BeerDTO> updateBeer(BeerDTO beerDTO);
+
+    Mono<Void> deleteBeer(UUID beerId);
+}
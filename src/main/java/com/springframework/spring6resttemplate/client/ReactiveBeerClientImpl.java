@@ -0,0 +1,140 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.UUID;
+
+import static com.springframework.spring6resttemplate.client.BeerClientImpl.GET_BEER_BY_ID_URL;
+import static com.springframework.spring6resttemplate.client.BeerClientImpl.GET_BEER_URL;
+
+@Service
+@ConditionalOnProperty(name = "rest.template.reactive.enabled", havingValue = "true")
+public class ReactiveBeerClientImpl implements ReactiveBeerClient {
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveBeerClientImpl(@Qualifier("beerWebClient") WebClient webClient, ObjectMapper objectMapper) {
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Flux<BeerDTO> listBeers() {
+        return this.listBeersWithFilters(null, null, null, null, null);
+    }
+
+    @Override
+    public Flux<BeerDTO> listBeersWithFilters(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
+        UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder.fromPath(GET_BEER_URL);
+
+        if(beerName != null){
+            uriComponentsBuilder.queryParam("beerName", beerName);
+        }
+
+        if(beerStyle != null){
+            uriComponentsBuilder.queryParam("beerStyle", beerStyle);
+        }
+
+        if(showInventory != null){
+            uriComponentsBuilder.queryParam("showInventory", showInventory);
+        }
+
+        if(pageNumber != null){
+            uriComponentsBuilder.queryParam("pageNumber", pageNumber);
+        }
+
+        if(pageSize != null){
+            uriComponentsBuilder.queryParam("pageSize", pageSize);
+        }
+
+        //beers are decoded chunk by chunk, and the next chunk is only requested once the subscriber took the beers of
+        //the previous one, so a slow subscriber holds one chunk of the page rather than all of it
+        return webClient.get()
+                .uri(uriComponentsBuilder.toUriString())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .transform(this::decodeBeers);
+    }
+
+    @Override
+    public Mono<BeerDTO> getBeerById(UUID beerId) {
+        return webClient.get()
+                .uri(GET_BEER_BY_ID_URL, beerId)
+                .retrieve()
+                .bodyToMono(BeerDTO.class);
+    }
+
+    @Override
+    public Mono<BeerDTO> createBeer(BeerDTO beerDtoToAdd) {
+        return webClient.post()
+                .uri(GET_BEER_URL)
+                .bodyValue(beerDtoToAdd)
+                .retrieve()
+                .toBodilessEntity()
+                .flatMap(response -> {
+                    URI location = response.getHeaders().getLocation();
+                    if (location == null) {
+                        return Mono.error(new IllegalStateException("Beer service created the beer without a Location header ("
+                                + response.getStatusCode() + ")"));
+                    }
+                    return webClient.get()
+                            .uri(location.getPath())
+                            .retrieve()
+                            .bodyToMono(BeerDTO.class);
+                });
+    }
+
+    @Override
+    public Mono<BeerDTO> updateBeer(BeerDTO beerDTO) {
+        return webClient.put()
+                .uri(GET_BEER_BY_ID_URL, beerDTO.getId())
+                .bodyValue(beerDTO)
+                .retrieve()
+                .toBodilessEntity()
+                .then(getBeerById(beerDTO.getId()));
+    }
+
+    @Override
+    public Mono<Void> deleteBeer(UUID beerId) {
+        return webClient.delete()
+                .uri(GET_BEER_BY_ID_URL, beerId)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    private Flux<BeerDTO> decodeBeers(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            StreamingBeerPageDecoder decoder = new StreamingBeerPageDecoder(objectMapper);
+
+            return body.concatMapIterable(buffer -> decoder.feed(bytesOf(buffer)), 1)
+                    .concatWith(Flux.defer(() -> {
+                        decoder.endOfInput();
+                        return Flux.<BeerDTO>empty();
+                    }));
+        });
+    }
+
+    private static byte[] bytesOf(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.springframework.spring6resttemplate.client;
+
+/**
+ * what the bulk writes of {@link BeerClient} do after each write
+ */
+public enum ReadBack {
+    //return what was sent (plus the new id for creates), no extra request
+    NONE,
+    //GET each record right after its own write, like createBeer and updateBeer do
+    IMMEDIATE,
+    //finish every write first, then read all the records back in one parallel batch
+    DEFERRED
+}
@@ -0,0 +1,86 @@
+package com.springframework.spring6resttemplate.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * merges identical reads that are in flight at the same time (single flight). The first caller for a key does the
+ * call, everybody arriving while it runs waits for it and gets a copy of its result or the same exception. Only for
+ * reads that may see data from before the call started, a read that has to see a write must not go through here
+ */
+@Component
+public class RequestCoalescer {
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Autowired
+    public RequestCoalescer(@Value("${rest.template.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call, UnaryOperator<T> copier) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+
+        if (existing != null) {
+            coalesced.increment();
+            T shared = (T) await(existing);
+            return shared == null ? null : copier.apply(shared);
+        }
+
+        executed.increment();
+        try {
+            T result = call.get();
+            //waiters copy from a snapshot, the leader's caller may change its own result before they get to it
+            leader.complete(result == null ? null : copier.apply(result));
+            return result;
+        } catch (RuntimeException | Error e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    //calls that actually went over the network
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    //calls that were answered by somebody else's request
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
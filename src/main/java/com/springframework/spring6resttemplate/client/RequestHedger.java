@@ -0,0 +1,293 @@
+package com.springframework.spring6resttemplate.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * hedged reads: when the first request has not answered after the configured latency percentile of recent calls, a
+ * second one is sent (to one of hedgeUrls when set, otherwise to the same root url) and whichever answers first wins,
+ * the other is cancelled. Hedges are paid for with a budget that grows by budgetPercent of a request on every call,
+ * so the extra load stays bounded even when the backend is slow across the board. Attempts run on a bounded executor
+ * of their own, a read that finds it full goes out unhedged on the caller's thread, and the caller waits at most
+ * maxWait for an answer
+ */
+@Component
+public class RequestHedger {
+    public static final String HEDGES = "beer.client.hedges";
+
+    static final int SAMPLE_WINDOW = 512;
+    static final int RECOMPUTE_EVERY = 64;
+    //credits are kept in thousandths of a request
+    static final long CREDITS_PER_HEDGE = 1000;
+    static final long MAX_CREDITS = 10 * CREDITS_PER_HEDGE;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final Duration minDelay;
+    private final long creditsPerCall;
+    private final List<String> hedgeUrls;
+    private final Duration maxWait;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+
+    private final long[] samples = new long[SAMPLE_WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private volatile long hedgeDelayNanos;
+
+    private final AtomicLong credits = new AtomicLong(MAX_CREDITS);
+    private final AtomicInteger nextHedgeUrl = new AtomicInteger();
+
+    @Autowired
+    public RequestHedger(@Value("${rest.template.hedging.enabled:false}") boolean enabled,
+                         @Value("${rest.template.hedging.percentile:0.95}") double percentile,
+                         @Value("${rest.template.hedging.minDelay:10ms}") Duration minDelay,
+                         @Value("${rest.template.hedging.budgetPercent:5}") double budgetPercent,
+                         @Value("${rest.template.hedging.hedgeUrls:}") String[] hedgeUrls,
+                         @Value("${rest.template.hedging.maxWait:${rest.template.timeout.read:10s}}") Duration maxWait,
+                         @Qualifier("beerHedgeExecutor") Executor executor,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.creditsPerCall = Math.round(budgetPercent * CREDITS_PER_HEDGE / 100);
+        this.hedgeUrls = Arrays.stream(hedgeUrls).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        this.maxWait = maxWait;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.hedgeDelayNanos = minDelay.toNanos();
+
+        Gauge.builder("beer.client.hedge.delay", this, hedger -> hedger.getHedgeDelay().toNanos() / 1_000_000.0)
+                .description("Time a read waits before it is hedged")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    //reads go straight through, used when BeerClientImpl is built by hand
+    public static RequestHedger disabled() {
+        return new RequestHedger(false, 0.95, Duration.ZERO, 0, new String[0], Duration.ZERO, Runnable::run,
+                Metrics.globalRegistry);
+    }
+
+    public Duration getHedgeDelay() {
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    /**
+     * call gets the base url to prefix the relative request uri with, an empty string means the configured root url
+     */
+    public <T> T execute(Function<String, T> call) {
+        if (!enabled) {
+            return call.apply("");
+        }
+
+        credits.accumulateAndGet(creditsPerCall, (current, earned) -> Math.min(MAX_CREDITS, current + earned));
+
+        long deadlineNanos = System.nanoTime() + maxWait.toNanos();
+        HedgedCall<T> hedgedCall = new HedgedCall<>();
+        Attempt<T> primary = hedgedCall.start(call, "", false);
+        if (primary == null) {
+            counter("executor_full").increment();
+            return call.apply("");
+        }
+
+        try {
+            return hedgedCall.result.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (hedgedCall.result.isDone()) {
+                return hedgedCall.await(primary, null, deadlineNanos);
+            }
+
+            //slow primary, hedge if the budget allows it, otherwise just keep waiting
+            if (!spendCredit()) {
+                counter("budget_exhausted").increment();
+                return hedgedCall.await(primary, null, deadlineNanos);
+            }
+
+            Attempt<T> hedge = hedgedCall.start(call, hedgeBaseUrl(), true);
+            if (hedge == null) {
+                credits.addAndGet(CREDITS_PER_HEDGE);
+                counter("executor_full").increment();
+            } else {
+                counter("sent").increment();
+            }
+            return hedgedCall.await(primary, hedge, deadlineNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            throw new IllegalStateException("Interrupted waiting for beer service", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private boolean spendCredit() {
+        long current;
+        do {
+            current = credits.get();
+            if (current < CREDITS_PER_HEDGE) {
+                return false;
+            }
+        } while (!credits.compareAndSet(current, current - CREDITS_PER_HEDGE));
+        return true;
+    }
+
+    private String hedgeBaseUrl() {
+        if (hedgeUrls.isEmpty()) {
+            return "";
+        }
+        return hedgeUrls.get(Math.floorMod(nextHedgeUrl.getAndIncrement(), hedgeUrls.size()));
+    }
+
+    //a sorted copy of the window every RECOMPUTE_EVERY samples keeps the per call cost to an array store
+    private synchronized void recordLatency(long nanos) {
+        samples[nextSample] = nanos;
+        nextSample = (nextSample + 1) % SAMPLE_WINDOW;
+        sampleCount++;
+
+        if (sampleCount % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, Math.min(sampleCount, SAMPLE_WINDOW));
+            Arrays.sort(sorted);
+            long threshold = sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+            hedgeDelayNanos = Math.max(minDelay.toNanos(), threshold);
+        }
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder(HEDGES)
+                .description("Hedged reads by what happened to them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    //the first successful attempt completes the result, it only fails once every attempt has failed
+    private class HedgedCall<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private volatile boolean hedged;
+
+        //null when the executor has no thread left for it
+        Attempt<T> start(Function<String, T> call, String baseUrl, boolean hedge) {
+            outstanding.incrementAndGet();
+            Attempt<T> attempt = new Attempt<>(this, () -> call.apply(baseUrl), hedge);
+            //set before the hedge can run, a fast one reaches succeeded() before execute() returns
+            if (hedge) {
+                hedged = true;
+            }
+            try {
+                executor.execute(attempt);
+            } catch (RejectedExecutionException e) {
+                if (hedge) {
+                    hedged = false;
+                }
+                outstanding.decrementAndGet();
+                return null;
+            }
+            return attempt;
+        }
+
+        T await(Attempt<T> primary, Attempt<T> hedge, long deadlineNanos) {
+            try {
+                return result.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new ResourceAccessException("Beer service did not answer within " + maxWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for beer service", e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } finally {
+                //the loser is interrupted, on virtual threads that aborts a blocked socket read
+                primary.cancel(true);
+                if (hedge != null) {
+                    hedge.cancel(true);
+                }
+            }
+        }
+
+        void sampled(long nanos) {
+            recordLatency(nanos);
+        }
+
+        void succeeded(T value, boolean hedge) {
+            //count before completing, the caller may read the counters as soon as it has the result
+            if (settled.compareAndSet(false, true)) {
+                if (hedged) {
+                    counter(hedge ? "won" : "lost").increment();
+                }
+                result.complete(value);
+            }
+        }
+
+        void failed(Throwable failure) {
+            firstFailure.compareAndSet(null, failure);
+            if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(firstFailure.get());
+            }
+        }
+    }
+
+    private static class Attempt<T> extends FutureTask<T> {
+        private final HedgedCall<T> hedgedCall;
+        private final boolean hedge;
+        private final long startNanos = System.nanoTime();
+
+        Attempt(HedgedCall<T> hedgedCall, Callable<T> callable, boolean hedge) {
+            super(callable);
+            this.hedgedCall = hedgedCall;
+            this.hedge = hedge;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            //failures count too, a percentile of the fast answers only would hedge too early
+            hedgedCall.sampled(System.nanoTime() - startNanos);
+            try {
+                hedgedCall.succeeded(get(), hedge);
+            } catch (ExecutionException e) {
+                hedgedCall.failed(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import org.springframework.core.codec.DecodingException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the reactive counterpart of {@link StreamingBeerPageExtractor}, fed with the body one chunk at a time. Each chunk
+ * yields the beers of the content array it completes, a beer split across chunks is held as tokens until its end
+ * arrives. The paging fields are skipped. One decoder per response, not thread safe
+ */
+class StreamingBeerPageDecoder {
+
+    private final ObjectReader beerReader;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private int depth;
+    private String field;
+    private boolean inContent;
+    private TokenBuffer beer;
+
+    StreamingBeerPageDecoder(ObjectMapper objectMapper) {
+        this.beerReader = objectMapper.readerFor(BeerDTO.class);
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Json factory cannot parse without blocking", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    List<BeerDTO> feed(byte[] chunk) {
+        try {
+            feeder.feedInput(chunk, 0, chunk.length);
+            return parseAvailable();
+        } catch (IOException e) {
+            throw new DecodingException("Beer page could not be decoded: " + e.getMessage(), e);
+        }
+    }
+
+    //fails when the body stopped in the middle of the page
+    void endOfInput() {
+        feeder.endOfInput();
+        try {
+            parseAvailable();
+            if (depth != 0) {
+                throw new DecodingException("Beer page body ended before the page was complete");
+            }
+        } catch (IOException e) {
+            throw new DecodingException("Beer page could not be decoded: " + e.getMessage(), e);
+        }
+    }
+
+    private List<BeerDTO> parseAvailable() throws IOException {
+        List<BeerDTO> beers = new ArrayList<>();
+        JsonToken token;
+
+        //the feeder only takes more input once everything fed so far is parsed
+        while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            if (beer != null) {
+                beer.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd() && --depth == 2) {
+                    beers.add(beerReader.readValue(beer.asParser()));
+                    beer = null;
+                }
+                continue;
+            }
+
+            if (depth == 0 && token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a beer page object but got " + token);
+            }
+
+            if (token == JsonToken.START_OBJECT && inContent && depth == 2) {
+                beer = new TokenBuffer(parser);
+                //keeps prices exact, the buffer would otherwise hold them as doubles
+                beer.forceUseOfBigDecimal(true);
+                beer.copyCurrentEvent(parser);
+                depth++;
+            } else if (token == JsonToken.FIELD_NAME) {
+                field = depth == 1 ? parser.getCurrentName() : null;
+            } else if (token.isStructStart()) {
+                inContent |= depth == 1 && token == JsonToken.START_ARRAY && "content".equals(field);
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+                inContent &= depth > 1;
+            }
+        }
+        return beers;
+    }
+}
@@ -0,0 +1,69 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * reads a beer page token by token straight from the response body. Each beer is handed to the consumer as soon as it
+ * is parsed, so no content list (and no PageImpl copy of it) is ever built, only the paging fields are kept
+ */
+class StreamingBeerPageExtractor implements ResponseExtractor<BeerPageMetadata> {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader beerReader;
+    private final Consumer<BeerDTO> beerConsumer;
+
+    StreamingBeerPageExtractor(ObjectMapper objectMapper, Consumer<BeerDTO> beerConsumer) {
+        this.objectMapper = objectMapper;
+        this.beerReader = objectMapper.readerFor(BeerDTO.class);
+        this.beerConsumer = beerConsumer;
+    }
+
+    @Override
+    public BeerPageMetadata extractData(ClientHttpResponse response) throws IOException {
+        int number = 0;
+        int size = 0;
+        long totalElements = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a beer page object but got " + parser.currentToken());
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "content" -> readContent(parser, value);
+                    case "number" -> number = parser.getIntValue();
+                    case "size" -> size = parser.getIntValue();
+                    case "totalElements" -> totalElements = parser.getLongValue();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return new BeerPageMetadata(number, size, totalElements);
+    }
+
+    private void readContent(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            beerConsumer.accept(beerReader.readValue(parser));
+        }
+    }
+}
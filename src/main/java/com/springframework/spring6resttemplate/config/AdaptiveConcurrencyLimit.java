@@ -0,0 +1,132 @@
+package com.springframework.spring6resttemplate.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on the calls in flight to the beer service. Every call that comes back in time adds 1/limit, so the limit
+ * grows by about one per round trip, as long as the limit is actually being used. A 429, 503 or IO error, or a
+ * latency above tolerance times the lowest recent latency, cuts it by backoffRatio, at most once per round trip so a
+ * burst of failures from one overload counts once
+ */
+public class AdaptiveConcurrencyLimit {
+    //samples after which the lowest latency is measured again, so a slower but healthy service is not read as overload
+    private static final int MIN_RTT_WINDOW = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    //waits for a free slot until the deadline (System.nanoTime), false when none came up
+    public boolean acquire(long deadlineNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //a call that got a response the service was willing to give
+    public void onSample(long rttNanos) {
+        lock.lock();
+        try {
+            windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+            if (++windowSamples >= MIN_RTT_WINDOW || minRttNanos == Long.MAX_VALUE) {
+                minRttNanos = windowMinRttNanos;
+                windowMinRttNanos = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+
+            if (rttNanos > minRttNanos * tolerance) {
+                decrease();
+            } else if (inFlight * 2 >= limit) {
+                int before = (int) limit;
+                limit = Math.min(maxLimit, limit + 1 / limit);
+                if ((int) limit > before) {
+                    released.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //the service pushed back or did not answer
+    public void onDrop() {
+        lock.lock();
+        try {
+            decrease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        long roundTrip = minRttNanos == Long.MAX_VALUE ? TimeUnit.MILLISECONDS.toNanos(1) : minRttNanos;
+        if (now - lastDecreaseNanos < roundTrip) {
+            return;
+        }
+
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseNanos = now;
+    }
+}
@@ -0,0 +1,193 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.springframework.spring6resttemplate.client.BeerClientResilience;
+import com.springframework.spring6resttemplate.client.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * keeps bursts from pushing the beer service into 429s and 503s. A call first waits out any Retry-After the service
+ * sent, then takes a token from the bucket of its operation type (read for GET and HEAD, write for the rest) and a
+ * slot of the {@link AdaptiveConcurrencyLimit}. It waits for all three up to maxWait, a maxWait of zero rejects at
+ * once. Rejected calls fail with {@link CallNotPermittedException} without reaching the service. The slot is held
+ * and the latency measured until the response is closed, a large page is still streaming over the connection after
+ * its headers are in
+ */
+public class AdaptiveLimitInterceptor implements ClientHttpRequestInterceptor {
+    public static final String READ = "read";
+    public static final String WRITE = "write";
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Map<String, TokenBucket> rateLimits;
+    private final Duration maxWait;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Instant pausedUntil = Instant.EPOCH;
+
+    //operation types without a bucket are not rate capped
+    public AdaptiveLimitInterceptor(AdaptiveConcurrencyLimit concurrencyLimit, Map<String, TokenBucket> rateLimits,
+                                    Duration maxWait, Clock clock, MeterRegistry meterRegistry) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.rateLimits = rateLimits;
+        this.maxWait = maxWait;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String operation = request.getMethod() == HttpMethod.GET || request.getMethod() == HttpMethod.HEAD ? READ : WRITE;
+        long deadlineNanos = System.nanoTime() + maxWait.toNanos();
+
+        Duration paused = Duration.between(clock.instant(), pausedUntil);
+        if (paused.compareTo(maxWait) > 0) {
+            throw reject(operation, "retry_after");
+        }
+        sleep(paused);
+
+        TokenBucket rateLimit = rateLimits.get(operation);
+        if (rateLimit != null) {
+            Duration wait = rateLimit.reserve(Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime())));
+            if (wait == null) {
+                throw reject(operation, "rate");
+            }
+            sleep(wait);
+        }
+
+        try {
+            if (!concurrencyLimit.acquire(deadlineNanos)) {
+                throw reject(operation, "concurrency");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a concurrency slot");
+        }
+
+        long start = System.nanoTime();
+        ClientHttpResponse response = null;
+        try {
+            response = execution.execute(request, body);
+            boolean dropped = response.getStatusCode().value() == 429 || response.getStatusCode().value() == 503;
+
+            if (dropped) {
+                concurrencyLimit.onDrop();
+                pauseFor(response.getHeaders());
+            }
+            return new SlotReleasingResponse(response, () -> {
+                if (!dropped) {
+                    concurrencyLimit.onSample(System.nanoTime() - start);
+                }
+                concurrencyLimit.release();
+            });
+        } catch (IOException e) {
+            concurrencyLimit.onDrop();
+            concurrencyLimit.release();
+            if (response != null) {
+                response.close();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            concurrencyLimit.release();
+            throw e;
+        }
+    }
+
+    //every call waits, the service asked the client as a whole to back off
+    private void pauseFor(HttpHeaders headers) {
+        Duration retryAfter = BeerClientResilience.retryAfter(headers, clock);
+        if (retryAfter != null) {
+            Instant until = clock.instant().plus(retryAfter);
+            if (until.isAfter(pausedUntil)) {
+                pausedUntil = until;
+            }
+        }
+    }
+
+    private CallNotPermittedException reject(String operation, String reason) {
+        Counter.builder(BeerClientResilience.REJECTIONS)
+                .description("Calls refused locally without reaching the beer service")
+                .tags("endpoint", operation, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new CallNotPermittedException("Beer service " + operation + " limit reached (" + reason + ")");
+    }
+
+    private static class SlotReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final Runnable onClose;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        SlotReleasingResponse(ClientHttpResponse response, Runnable onClose) {
+            this.response = response;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        @Deprecated
+        public int getRawStatusCode() throws IOException {
+            return response.getStatusCode().value();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    onClose.run();
+                }
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) throws InterruptedIOException {
+        if (duration.isNegative() || duration.isZero()) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(duration.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the beer service limit");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncClientConfig {
+
+    @Value("${rest.template.async.virtualThreads:true}")
+    boolean virtualThreads;
+
+    @Value("${rest.template.async.poolSize:64}")
+    int poolSize;
+
+    @Value("${rest.template.hedging.maxThreads:64}")
+    int hedgeMaxThreads;
+
+    //executor the async client runs its blocking calls on, one virtual thread per task when the jvm has them
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService beerClientExecutor() {
+        if (virtualThreads) {
+            ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+
+            if (virtualThreadExecutor != null) {
+                return virtualThreadExecutor;
+            }
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-client-");
+        threadFactory.setDaemon(true);
+
+        return Executors.newFixedThreadPool(poolSize, threadFactory);
+    }
+
+    //hedged reads run their attempts here and not on beerClientExecutor, where the caller may itself be an async task,
+    //a batch worker or a prefetch waiting on them. No queue, when every thread is busy the read is not hedged
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService beerHedgeExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-hedge-");
+        threadFactory.setDaemon(true);
+
+        return new ThreadPoolExecutor(0, hedgeMaxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    }
+
+    //looked up reflectively so the project still runs on java 17, where virtual threads do not exist
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
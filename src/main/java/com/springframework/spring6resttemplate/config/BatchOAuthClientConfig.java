@@ -0,0 +1,37 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnNotWebApplication;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientProperties;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientPropertiesRegistrationAdapter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+
+import java.util.ArrayList;
+
+/**
+ * Boot only sets up the OAuth2 client for servlet applications, so without a web server (the batch profile) the
+ * registrations and the authorized client service the RestTemplate interceptor needs are built here from the same
+ * spring.security.oauth2.client properties
+ */
+@Configuration
+@ConditionalOnNotWebApplication
+@EnableConfigurationProperties(OAuth2ClientProperties.class)
+public class BatchOAuthClientConfig {
+
+    //not clientRegistrationRepository, the reactive auto configuration registers its own repository under that name
+    @Bean
+    ClientRegistrationRepository batchClientRegistrationRepository(OAuth2ClientProperties properties) {
+        return new InMemoryClientRegistrationRepository(
+                new ArrayList<>(OAuth2ClientPropertiesRegistrationAdapter.getClientRegistrations(properties).values()));
+    }
+
+    @Bean
+    OAuth2AuthorizedClientService batchAuthorizedClientService(ClientRegistrationRepository batchClientRegistrationRepository) {
+        return new InMemoryOAuth2AuthorizedClientService(batchClientRegistrationRepository);
+    }
+}
@@ -0,0 +1,34 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * the beer types only ever go through Jackson inside RestTemplate and WebClient calls, which AOT processing cannot see,
+ * so a native image needs to be told to keep their constructors, accessors and fields
+ */
+public class BeerClientRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : new Class<?>[]{BeerDTO.class, BeerDTO.BeerDTOBuilder.class, BeerDTOPageImpl.class, BeerStyle.class}) {
+            hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+
+        //Jackson also walks the page accessors BeerDTOPageImpl inherits
+        hints.reflection().registerType(PageImpl.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(TypeReference.of("org.springframework.data.domain.Chunk"), MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.serialization().registerType(BeerDTOPageImpl.class);
+        hints.serialization().registerType(BeerStyle.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * read optimized decoding for the Boot ObjectMapper the RestTemplate converters use, switched on with
+ * rest.template.decoding.optimized=true. Boot installs every Module bean on its mapper, so the UUID and BeerStyle
+ * deserializers and blackbird then apply to every Jackson user in the application, not only the beer client
+ */
+@Configuration
+@ConditionalOnProperty(name = "rest.template.decoding.optimized", havingValue = "true")
+public class BeerDecodingConfig {
+
+    //BeerDTO fields the application never reads, e.g. createdDate,updateDate
+    @Value("${rest.template.decoding.skipFields:}")
+    String[] skipFields;
+
+    //generated lambdas instead of reflection for property access and construction. A native image cannot define
+    //classes at runtime, there the reflection hints of BeerClientRuntimeHints are used instead
+    @Bean
+    Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule("blackbird-disabled") : new BlackbirdModule();
+    }
+
+    @Bean
+    Module beerDecodingModule() {
+        Set<String> skipped = Arrays.stream(skipFields)
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+
+        return new BeerDecodingModule(skipped);
+    }
+}
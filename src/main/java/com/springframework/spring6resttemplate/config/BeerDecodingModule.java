@@ -0,0 +1,124 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.EnumDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.UUIDDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.EnumResolver;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * read side shortcuts for {@link BeerDTO}. Styles and ids are matched and parsed straight from the parser's char
+ * buffer, so neither allocates a String per beer, and fields listed as skipped are stepped over without being decoded
+ */
+public class BeerDecodingModule extends SimpleModule {
+    private final Set<String> skippedFields;
+
+    public BeerDecodingModule(Set<String> skippedFields) {
+        super(BeerDecodingModule.class.getSimpleName());
+        this.skippedFields = Set.copyOf(skippedFields);
+
+        addDeserializer(BeerStyle.class, new BeerStyleDeserializer());
+        addDeserializer(UUID.class, new FastUuidDeserializer());
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+
+        //only reads are ignored, the fields are still written so request bodies do not change
+        if (!skippedFields.isEmpty()) {
+            context.configOverride(BeerDTO.class).setIgnorals(JsonIgnoreProperties.Value
+                    .forIgnoredProperties(skippedFields)
+                    .withAllowGetters());
+        }
+    }
+
+    //compares the token chars against the ten constant names, returning the enum constant itself
+    static class BeerStyleDeserializer extends StdScalarDeserializer<BeerStyle> {
+        private static final BeerStyle[] STYLES = BeerStyle.values();
+        private static final char[][] NAMES = Arrays.stream(STYLES)
+                .map(style -> style.name().toCharArray())
+                .toArray(char[][]::new);
+
+        //jackson's own enum handling for whatever is not a constant name, built on first use
+        private volatile JsonDeserializer<?> fallback;
+
+        BeerStyleDeserializer() {
+            super(BeerStyle.class);
+        }
+
+        @Override
+        public BeerStyle deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                char[] text = parser.getTextCharacters();
+                int offset = parser.getTextOffset();
+                int end = offset + parser.getTextLength();
+
+                for (int i = 0; i < NAMES.length; i++) {
+                    if (Arrays.equals(NAMES[i], 0, NAMES[i].length, text, offset, end)) {
+                        return STYLES[i];
+                    }
+                }
+            }
+
+            //unknown names, empty strings and indexes get jackson's usual enum handling
+            JsonDeserializer<?> enumDeserializer = fallback;
+            if (enumDeserializer == null) {
+                enumDeserializer = new EnumDeserializer(EnumResolver.constructFor(context.getConfig(), BeerStyle.class), null);
+                fallback = enumDeserializer;
+            }
+            return (BeerStyle) enumDeserializer.deserialize(parser, context);
+        }
+    }
+
+    //canonical 36 char ids are parsed in place, anything else (binary ids from smile/cbor, odd formats) goes to jackson's
+    static class FastUuidDeserializer extends UUIDDeserializer {
+        private static final int UUID_LENGTH = 36;
+
+        @Override
+        public UUID deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING) && parser.getTextLength() == UUID_LENGTH) {
+                char[] text = parser.getTextCharacters();
+                int offset = parser.getTextOffset();
+
+                if (text[offset + 8] == '-' && text[offset + 13] == '-' && text[offset + 18] == '-' && text[offset + 23] == '-') {
+                    long timeLow = hex(text, offset, 8);
+                    long timeMid = hex(text, offset + 9, 4);
+                    long timeHigh = hex(text, offset + 14, 4);
+                    long clockSeq = hex(text, offset + 19, 4);
+                    long node = hex(text, offset + 24, 12);
+
+                    if ((timeLow | timeMid | timeHigh | clockSeq | node) >= 0) {
+                        return new UUID(timeLow << 32 | timeMid << 16 | timeHigh, clockSeq << 48 | node);
+                    }
+                }
+            }
+            return super.deserialize(parser, context);
+        }
+
+        //at most 12 digits, so a valid group is never negative and -1 can mark a bad digit
+        private static long hex(char[] text, int offset, int digits) {
+            long value = 0;
+            for (int i = offset; i < offset + digits; i++) {
+                int digit = text[i] < 128 ? Character.digit(text[i], 16) : -1;
+                if (digit < 0) {
+                    return -1;
+                }
+                value = value << 4 | digit;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+
+/**
+ * read only view over the pool of the selected transport, so callers can check how busy it is without touching it.
+ * HTTP1 reports pooled connections, HTTP2 reports streams over its multiplexed connections. The transport binds itself
+ * when it is created by the first request, until then every figure is 0 and nothing is created just to report it
+ */
+public class ConnectionPoolStats {
+    private volatile PoolingHttpClientConnectionManager connectionManager;
+    private volatile Http2ClientHttpRequestFactory http2RequestFactory;
+
+    void bind(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    void bind(Http2ClientHttpRequestFactory http2RequestFactory) {
+        this.http2RequestFactory = http2RequestFactory;
+    }
+
+    //connections (HTTP2 streams) currently handed out to requests
+    public int getLeased() {
+        if (http2RequestFactory != null) {
+            return http2RequestFactory.getActiveStreams();
+        }
+        return connectionManager == null ? 0 : totalStats().getLeased();
+    }
+
+    //open connections waiting in the pool for reuse, for HTTP2 the streams still free on them
+    public int getAvailable() {
+        if (http2RequestFactory != null) {
+            return http2RequestFactory.getMaxStreams() - http2RequestFactory.getActiveStreams();
+        }
+        return connectionManager == null ? 0 : totalStats().getAvailable();
+    }
+
+    //requests blocked waiting for a connection or a stream
+    public int getPending() {
+        if (http2RequestFactory != null) {
+            return http2RequestFactory.getPendingStreams();
+        }
+        return connectionManager == null ? 0 : totalStats().getPending();
+    }
+
+    public int getMax() {
+        if (http2RequestFactory != null) {
+            return http2RequestFactory.getMaxStreams();
+        }
+        return connectionManager == null ? 0 : totalStats().getMax();
+    }
+
+    private PoolStats totalStats() {
+        return connectionManager.getTotalStats();
+    }
+}
@@ -0,0 +1,238 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * serves GETs from a {@link DiskResponseCache} while they are fresh and revalidates them with If-None-Match once they
+ * are not. Runs first in the chain, so a fresh hit needs neither a token nor a connection. Freshness comes from
+ * Cache-Control max-age (no-cache means revalidate every time, no-store is never kept), defaultTtl otherwise. A
+ * successful write to a uri drops the cached copies of it and of its Location
+ */
+public class DiskCacheInterceptor implements ClientHttpRequestInterceptor {
+    private final DiskResponseCache cache;
+    private final String scope;
+    private final Duration defaultTtl;
+    private final Clock clock;
+
+    //scope keeps the responses seen by different client registrations apart
+    public DiskCacheInterceptor(DiskResponseCache cache, String scope, Duration defaultTtl, Clock clock) {
+        this.cache = cache;
+        this.scope = scope;
+        this.defaultTtl = defaultTtl;
+        this.clock = clock;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return invalidateOnSuccess(request, execution.execute(request, body));
+        }
+
+        HttpHeaders headers = request.getHeaders();
+        //the caller is revalidating its own copy or asked to skip caches, stay out of the way
+        String cacheControl = headers.getCacheControl();
+        if (!headers.getIfNoneMatch().isEmpty() || headers.getIfModifiedSince() != -1
+                || cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"))) {
+            return execution.execute(request, body);
+        }
+
+        String key = uriKey(request.getURI()) + headers.getAccept();
+        Instant now = clock.instant();
+        DiskResponseCache.Entry cached = cache.get(key);
+
+        if (cached != null && cached.isFresh(now)) {
+            cache.recordHit();
+            return new CachedResponse(cached);
+        }
+        if (cached != null && cached.etag() != null) {
+            headers.setIfNoneMatch(cached.etag());
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            Instant expiresAt = expiresAt(response.getHeaders(), now);
+            response.close();
+
+            DiskResponseCache.Entry refreshed = cached.refreshed(now, expiresAt == null ? now : expiresAt);
+            cache.put(key, refreshed);
+            cache.recordRevalidation();
+            return new CachedResponse(refreshed);
+        }
+
+        cache.recordMiss();
+        Instant expiresAt = expiresAt(response.getHeaders(), now);
+        if (response.getStatusCode() != HttpStatus.OK || expiresAt == null) {
+            return response;
+        }
+        return store(key, response, now, expiresAt);
+    }
+
+    private ClientHttpResponse store(String key, ClientHttpResponse response, Instant now, Instant expiresAt) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        int limit = cache.getMaxEntryBytes();
+        if (headers.getContentLength() > limit) {
+            return response;
+        }
+
+        InputStream upstream = response.getBody();
+        byte[] body = upstream.readNBytes(limit + 1);
+
+        //too big after all, hand the bytes already read back in front of the rest
+        if (body.length > limit) {
+            return new ReplayedResponse(response, new SequenceInputStream(new ByteArrayInputStream(body), upstream));
+        }
+
+        DiskResponseCache.Entry entry = new DiskResponseCache.Entry(HttpStatus.OK.value(),
+                headers.getContentType() == null ? null : headers.getContentType().toString(), headers.getETag(),
+                now, expiresAt, body);
+        cache.put(key, entry);
+        response.close();
+        return new CachedResponse(entry);
+    }
+
+    private ClientHttpResponse invalidateOnSuccess(HttpRequest request, ClientHttpResponse response) throws IOException {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            cache.invalidate(uriKey(request.getURI()));
+
+            URI location = response.getHeaders().getLocation();
+            if (location != null) {
+                cache.invalidate(uriKey(request.getURI().resolve(location)));
+            }
+        }
+        return response;
+    }
+
+    //null when the response must not be stored
+    private Instant expiresAt(HttpHeaders headers, Instant now) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return now.plus(defaultTtl);
+        }
+
+        Duration maxAge = null;
+        for (String directive : cacheControl.split(",")) {
+            String trimmed = directive.trim().toLowerCase();
+            if (trimmed.equals("no-store")) {
+                return null;
+            }
+            if (trimmed.equals("no-cache")) {
+                maxAge = Duration.ZERO;
+            } else if (trimmed.startsWith("max-age=") && maxAge == null) {
+                try {
+                    maxAge = Duration.ofSeconds(Long.parseLong(trimmed.substring("max-age=".length())));
+                } catch (NumberFormatException e) {
+                    maxAge = Duration.ZERO;
+                }
+            }
+        }
+        return now.plus(maxAge == null ? defaultTtl : maxAge);
+    }
+
+    private String uriKey(URI uri) {
+        return scope + " " + uri + " ";
+    }
+
+    private static class CachedResponse implements ClientHttpResponse {
+        private final DiskResponseCache.Entry entry;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        CachedResponse(DiskResponseCache.Entry entry) {
+            this.entry = entry;
+            if (entry.contentType() != null) {
+                headers.set(HttpHeaders.CONTENT_TYPE, entry.contentType());
+            }
+            if (entry.etag() != null) {
+                headers.setETag(entry.etag());
+            }
+            headers.setContentLength(entry.body().length);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(entry.status());
+        }
+
+        @Override
+        @Deprecated
+        public int getRawStatusCode() {
+            return entry.status();
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.valueOf(entry.status()).getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(entry.body());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class ReplayedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final InputStream body;
+
+        ReplayedResponse(ClientHttpResponse response, InputStream body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        @Deprecated
+        public int getRawStatusCode() throws IOException {
+            return response.getStatusCode().value();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.springframework.spring6resttemplate.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * GET responses kept across restarts in one memory mapped, append only segment file, with an in memory index of where
+ * the latest record of every key starts. Every record carries a CRC32C, so on open the segment is replayed up to the
+ * first torn or missing record and everything after it is dropped. When the segment is full the most recently used
+ * entries are copied to a fresh file that atomically replaces it. The directory belongs to one process at a time,
+ * held by a lock file for as long as the cache is open
+ */
+public class DiskResponseCache implements Closeable {
+    static final String SEGMENT_FILE = "beer-responses.seg";
+    static final String COMPACTION_FILE = "beer-responses.seg.compact";
+    static final String LOCK_FILE = "beer-responses.lock";
+    //keys, content types and etags are stored with an unsigned short length
+    static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final int MAGIC = 0xBEE2CAC4;
+    private static final int HEADER_BYTES = 12; //magic, payload length, crc
+    private static final byte PUT = 1;
+    private static final byte TOMBSTONE = 2;
+
+    private final Path directory;
+    private final int capacity;
+    //access ordered, compaction keeps the most recently used entries
+    private final Map<String, Long> offsets = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int writePosition;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    //IllegalStateException when another process (or another cache in this one) has the directory open
+    public DiskResponseCache(Path directory, int capacity) {
+        this.directory = directory;
+        this.capacity = capacity;
+
+        FileChannel lockFile = null;
+        try {
+            Files.createDirectories(directory);
+            //on a file of its own, the segment is replaced by every compaction
+            lockFile = open(directory.resolve(LOCK_FILE));
+            lock = tryLock(lockFile);
+            if (lock == null) {
+                throw new IllegalStateException("Response cache in " + directory + " is in use by another process");
+            }
+            lockChannel = lockFile;
+
+            //a compaction that did not get to the rename, the old segment is still complete
+            Files.deleteIfExists(directory.resolve(COMPACTION_FILE));
+            channel = open(directory.resolve(SEGMENT_FILE));
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            recover();
+        } catch (IOException e) {
+            closeQuietly(lockFile);
+            throw new UncheckedIOException("Cannot open response cache in " + directory, e);
+        } catch (RuntimeException e) {
+            closeQuietly(lockFile);
+            throw e;
+        }
+    }
+
+    public record Entry(int status, String contentType, String etag, Instant storedAt, Instant expiresAt, byte[] body) {
+
+        public boolean isFresh(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+
+        public Entry refreshed(Instant now, Instant expiresAt) {
+            return new Entry(status, contentType, etag, now, expiresAt, body);
+        }
+    }
+
+    //largest response that is stored, bigger ones would leave too little room for anything else
+    public int getMaxEntryBytes() {
+        return capacity / 4;
+    }
+
+    public synchronized Entry get(String key) {
+        Long offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+        return readEntry(record(offset.intValue()));
+    }
+
+    public synchronized void put(String key, Entry entry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] contentType = bytes(entry.contentType());
+        byte[] etag = bytes(entry.etag());
+        if (keyBytes.length > MAX_STRING_BYTES || contentType.length > MAX_STRING_BYTES || etag.length > MAX_STRING_BYTES) {
+            return;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 + keyBytes.length + 8 + 8 + 2 + 2 + contentType.length + 2 + etag.length
+                + 4 + entry.body().length);
+        payload.put(PUT);
+        payload.putShort((short) keyBytes.length).put(keyBytes);
+        payload.putLong(entry.storedAt().toEpochMilli());
+        payload.putLong(entry.expiresAt().toEpochMilli());
+        payload.putShort((short) entry.status());
+        payload.putShort((short) contentType.length).put(contentType);
+        payload.putShort((short) etag.length).put(etag);
+        payload.putInt(entry.body().length).put(entry.body());
+
+        if (payload.capacity() + HEADER_BYTES > getMaxEntryBytes()) {
+            return;
+        }
+        offsets.put(key, (long) append(payload.array()));
+    }
+
+    //drops every cached variant of the uri, the tombstones keep them dropped after a restart
+    public synchronized void invalidate(String keyPrefix) {
+        List<String> keys = offsets.keySet().stream().filter(key -> key.startsWith(keyPrefix)).toList();
+
+        for (String key : keys) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer payload = ByteBuffer.allocate(1 + 2 + keyBytes.length);
+            payload.put(TOMBSTONE).putShort((short) keyBytes.length).put(keyBytes);
+
+            append(payload.array());
+            offsets.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    public synchronized int getSegmentBytes() {
+        return writePosition;
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordRevalidation() {
+        revalidations.increment();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+
+    //dirty pages belong to the os page cache, they survive a jvm crash even without this
+    @Override
+    public synchronized void close() {
+        try {
+            segment.force();
+            channel.close();
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+
+        if (writePosition + recordBytes > capacity) {
+            compact();
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        //magic last, and the crc catches a record whose pages only partly reached the disk
+        segment.put(writePosition + HEADER_BYTES, payload);
+        segment.putInt(writePosition + 4, payload.length);
+        segment.putInt(writePosition + 8, (int) crc.getValue());
+        segment.putInt(writePosition, MAGIC);
+
+        int offset = writePosition;
+        writePosition += recordBytes;
+        return offset;
+    }
+
+    //replays the segment, stops at the first record that is missing, torn or fails its checksum
+    private void recover() {
+        int position = 0;
+
+        while (position + HEADER_BYTES <= capacity && segment.getInt(position) == MAGIC) {
+            int length = segment.getInt(position + 4);
+            if (length <= 0 || position + HEADER_BYTES + length > capacity) {
+                break;
+            }
+
+            ByteBuffer payload = record(position);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != segment.getInt(position + 8)) {
+                break;
+            }
+
+            byte type = payload.get();
+            String key = readString(payload);
+            if (type == PUT) {
+                offsets.put(key, (long) position);
+            } else {
+                offsets.remove(key);
+            }
+            position += HEADER_BYTES + length;
+        }
+
+        writePosition = position;
+
+        //wipe what is left of a torn write, so an older record behind it is never replayed after newer ones
+        if (hasBytesFrom(position)) {
+            byte[] zeros = new byte[8192];
+            for (int i = position; i < capacity; i += zeros.length) {
+                segment.put(i, zeros, 0, Math.min(zeros.length, capacity - i));
+            }
+        }
+    }
+
+    private boolean hasBytesFrom(int position) {
+        int i = position;
+        for (; i + 8 <= capacity; i += 8) {
+            if (segment.getLong(i) != 0) {
+                return true;
+            }
+        }
+        for (; i < capacity; i++) {
+            if (segment.get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //copies the most recently used entries into half the capacity of a new file, then renames it over the segment
+    private void compact() {
+        Path compacted = directory.resolve(COMPACTION_FILE);
+        List<Map.Entry<String, Long>> newestFirst = new ArrayList<>(offsets.entrySet());
+        Collections.reverse(newestFirst);
+
+        try (FileChannel target = open(compacted)) {
+            MappedByteBuffer targetSegment = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            Map<String, Long> kept = new LinkedHashMap<>();
+            int position = 0;
+
+            for (Map.Entry<String, Long> entry : newestFirst) {
+                int offset = entry.getValue().intValue();
+                int recordBytes = HEADER_BYTES + segment.getInt(offset + 4);
+                if (position + recordBytes > capacity / 2) {
+                    break;
+                }
+
+                targetSegment.put(position, segment, offset, recordBytes);
+                kept.put(entry.getKey(), (long) position);
+                position += recordBytes;
+            }
+            targetSegment.force();
+
+            Files.move(compacted, directory.resolve(SEGMENT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            channel.close();
+            channel = open(directory.resolve(SEGMENT_FILE));
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            writePosition = position;
+
+            //back to least recently used first, the order the index keeps
+            offsets.clear();
+            List<Map.Entry<String, Long>> oldestFirst = new ArrayList<>(kept.entrySet());
+            Collections.reverse(oldestFirst);
+            oldestFirst.forEach(entry -> offsets.put(entry.getKey(), entry.getValue()));
+            compactions.increment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact response cache in " + directory, e);
+        }
+    }
+
+    private ByteBuffer record(int offset) {
+        int length = segment.getInt(offset + 4);
+        return segment.slice(offset + HEADER_BYTES, length);
+    }
+
+    private static Entry readEntry(ByteBuffer payload) {
+        payload.get();
+        readString(payload);
+        Instant storedAt = Instant.ofEpochMilli(payload.getLong());
+        Instant expiresAt = Instant.ofEpochMilli(payload.getLong());
+        int status = payload.getShort();
+        String contentType = readString(payload);
+        String etag = readString(payload);
+        byte[] body = new byte[payload.getInt()];
+        payload.get(body);
+
+        return new Entry(status, contentType.isEmpty() ? null : contentType, etag.isEmpty() ? null : etag,
+                storedAt, expiresAt, body);
+    }
+
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    //closing the channel also releases its lock
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,250 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HTTP/2 transport on the JDK HttpClient. Every connection is its own HttpClient, which keeps a single HTTP/2
+ * connection per host, and calls are spread over them round robin with at most maxStreamsPerConnection in flight on
+ * each. A caller that finds no free stream within streamAcquireTimeout fails like one that finds no pooled connection.
+ * On plain http the first call of a connection goes alone and upgrades it to h2c, the others wait for it instead of
+ * each opening an HTTP/1.1 connection of their own. Responses are not decompressed, so Accept-Encoding is not sent
+ */
+public class Http2ClientHttpRequestFactory implements ClientHttpRequestFactory {
+    //set by the JDK client itself, it refuses requests that carry them
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final Connection[] connections;
+    private final Duration readTimeout;
+    private final Duration streamAcquireTimeout;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public Http2ClientHttpRequestFactory(int connections, int maxStreamsPerConnection, Duration connectTimeout,
+                                         Duration readTimeout, Duration streamAcquireTimeout) {
+        this.connections = new Connection[Math.max(1, connections)];
+        for (int i = 0; i < this.connections.length; i++) {
+            this.connections[i] = new Connection(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(connectTimeout)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build(), maxStreamsPerConnection);
+        }
+        this.readTimeout = readTimeout;
+        this.streamAcquireTimeout = streamAcquireTimeout;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new Http2ClientHttpRequest(uri, httpMethod);
+    }
+
+    //streams in flight over all connections
+    public int getActiveStreams() {
+        int active = 0;
+        for (Connection connection : connections) {
+            active += connection.maxStreams - connection.streams.availablePermits();
+        }
+        return active;
+    }
+
+    //stream limit over all connections
+    public int getMaxStreams() {
+        int max = 0;
+        for (Connection connection : connections) {
+            max += connection.maxStreams;
+        }
+        return max;
+    }
+
+    //requests waiting for a free stream, an estimate like Semaphore#getQueueLength
+    public int getPendingStreams() {
+        int pending = 0;
+        for (Connection connection : connections) {
+            pending += connection.streams.getQueueLength();
+        }
+        return pending;
+    }
+
+    private Connection nextConnection() {
+        return connections[Math.floorMod(next.getAndIncrement(), connections.length)];
+    }
+
+    private static class Connection {
+        private final HttpClient httpClient;
+        private final int maxStreams;
+        private final Semaphore streams;
+        private final ReentrantLock upgradeLock = new ReentrantLock();
+        private volatile boolean established;
+
+        Connection(HttpClient httpClient, int maxStreams) {
+            this.httpClient = httpClient;
+            this.maxStreams = maxStreams;
+            this.streams = new Semaphore(maxStreams);
+        }
+    }
+
+    private class Http2ClientHttpRequest extends AbstractClientHttpRequest {
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        Http2ClientHttpRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(readTimeout);
+            headers.forEach((name, values) -> {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> builder.header(name, value));
+                }
+            });
+            byte[] bytes = body.toByteArray();
+            builder.method(method.name(), bytes.length == 0
+                    ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(bytes));
+            HttpRequest request = builder.build();
+
+            Connection connection = nextConnection();
+            try {
+                if (!connection.streams.tryAcquire(streamAcquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw new IOException("No free HTTP/2 stream to " + uri.getHost() + " within " + streamAcquireTimeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for an HTTP/2 stream");
+            }
+
+            try {
+                return new Http2ClientHttpResponse(send(connection, request), connection.streams);
+            } catch (IOException | RuntimeException e) {
+                connection.streams.release();
+                throw e;
+            }
+        }
+
+        private HttpResponse<InputStream> send(Connection connection, HttpRequest request) throws IOException {
+            if (connection.established) {
+                return send(connection.httpClient, request);
+            }
+
+            connection.upgradeLock.lock();
+            try {
+                HttpResponse<InputStream> response = send(connection.httpClient, request);
+                //an HTTP/1.1 answer means no h2c, the JDK client then pools HTTP/1.1 connections on its own
+                connection.established = true;
+                return response;
+            } finally {
+                connection.upgradeLock.unlock();
+            }
+        }
+
+        private HttpResponse<InputStream> send(HttpClient httpClient, HttpRequest request) throws IOException {
+            try {
+                return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for " + uri);
+            }
+        }
+    }
+
+    private static class Http2ClientHttpResponse implements ClientHttpResponse {
+        private final HttpResponse<InputStream> response;
+        private final Semaphore streams;
+        private final HttpHeaders headers = new HttpHeaders();
+        private boolean closed;
+
+        Http2ClientHttpResponse(HttpResponse<InputStream> response, Semaphore streams) {
+            this.response = response;
+            this.streams = streams;
+            response.headers().map().forEach((name, values) -> {
+                if (!name.startsWith(":")) {
+                    headers.addAll(name, List.copyOf(values));
+                }
+            });
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.statusCode());
+        }
+
+        @Override
+        @Deprecated
+        public int getRawStatusCode() {
+            return response.statusCode();
+        }
+
+        //HTTP/2 has no reason phrase
+        @Override
+        public String getStatusText() {
+            HttpStatus status = HttpStatus.resolve(response.statusCode());
+            return status == null ? "" : status.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return response.body();
+        }
+
+        //the stream stays taken until the body is closed, closing an unread body resets just this stream
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                response.body().close();
+            } catch (IOException ignored) {
+            } finally {
+                streams.release();
+            }
+        }
+    }
+}
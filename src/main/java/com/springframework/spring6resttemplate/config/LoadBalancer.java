@@ -0,0 +1,141 @@
+package com.springframework.spring6resttemplate.config;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * picks one of the configured beer service instances for every request, either the less busy of two random ones
+ * (power of two choices) or the least busy of all. Instances are passively health checked: after a run of
+ * consecutive failures an instance is ejected for ejectionTime, but never more than maxEjectionPercent of them
+ */
+public class LoadBalancer {
+
+    public enum Strategy { P2C, LEAST_OUTSTANDING }
+
+    private final List<Endpoint> endpoints;
+    private final Strategy strategy;
+    private final int ejectAfterFailures;
+    private final Duration ejectionTime;
+    private final int maxEjectionPercent;
+    private final Clock clock;
+
+    public LoadBalancer(List<URI> baseUris, Strategy strategy, int ejectAfterFailures, Duration ejectionTime,
+                        int maxEjectionPercent, Clock clock) {
+        if (baseUris.isEmpty()) {
+            throw new IllegalArgumentException("At least one base url is required");
+        }
+        this.endpoints = baseUris.stream().map(Endpoint::new).toList();
+        this.strategy = strategy;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectionTime = ejectionTime;
+        this.maxEjectionPercent = maxEjectionPercent;
+        this.clock = clock;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public Endpoint choose() {
+        List<Endpoint> candidates = healthyEndpoints();
+
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (strategy == Strategy.P2C) {
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            Endpoint a = candidates.get(first);
+            Endpoint b = candidates.get(second);
+            return a.getOutstanding() <= b.getOutstanding() ? a : b;
+        }
+
+        //start at a random index so ties do not always land on the first instance
+        int offset = random.nextInt(candidates.size());
+        Endpoint best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Endpoint candidate = candidates.get((offset + i) % candidates.size());
+            if (best == null || candidate.getOutstanding() < best.getOutstanding()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    public void onSuccess(Endpoint endpoint) {
+        endpoint.consecutiveFailures.set(0);
+    }
+
+    public void onFailure(Endpoint endpoint) {
+        if (endpoint.consecutiveFailures.incrementAndGet() >= ejectAfterFailures && canEject()) {
+            endpoint.consecutiveFailures.set(0);
+            endpoint.ejectedUntil = clock.instant().plus(ejectionTime);
+        }
+    }
+
+    private List<Endpoint> healthyEndpoints() {
+        Instant now = clock.instant();
+        List<Endpoint> healthy = new ArrayList<>(endpoints.size());
+
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.isEjected(now)) {
+                healthy.add(endpoint);
+            }
+        }
+        //everything is down, spreading the load over all of them beats failing every call locally
+        return healthy.isEmpty() ? endpoints : healthy;
+    }
+
+    private boolean canEject() {
+        Instant now = clock.instant();
+        long ejected = endpoints.stream().filter(endpoint -> endpoint.isEjected(now)).count();
+        return (ejected + 1) * 100 <= (long) maxEjectionPercent * endpoints.size();
+    }
+
+    public boolean isEjected(Endpoint endpoint) {
+        return endpoint.isEjected(clock.instant());
+    }
+
+    public static class Endpoint {
+        private final URI baseUri;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile Instant ejectedUntil = Instant.MIN;
+
+        Endpoint(URI baseUri) {
+            this.baseUri = baseUri;
+        }
+
+        public URI getBaseUri() {
+            return baseUri;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        void started() {
+            outstanding.incrementAndGet();
+        }
+
+        void finished() {
+            outstanding.decrementAndGet();
+        }
+
+        private boolean isEjected(Instant now) {
+            return now.isBefore(ejectedUntil);
+        }
+    }
+}
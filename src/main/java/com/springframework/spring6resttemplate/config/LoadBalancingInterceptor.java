@@ -0,0 +1,73 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * sends requests aimed at the logical root url to the instance the load balancer picks. Absolute urls pointing
+ * anywhere else (a hedge to a specific host for example) are left alone. Outstanding counts drop once the response
+ * headers are in, which is close enough for spreading small json calls
+ */
+public class LoadBalancingInterceptor implements ClientHttpRequestInterceptor {
+    private final URI rootUri;
+    private final LoadBalancer loadBalancer;
+
+    public LoadBalancingInterceptor(URI rootUri, LoadBalancer loadBalancer) {
+        this.rootUri = rootUri;
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!isRootUri(request.getURI())) {
+            return execution.execute(request, body);
+        }
+
+        LoadBalancer.Endpoint endpoint = loadBalancer.choose();
+        URI routedUri = UriComponentsBuilder.fromUri(request.getURI())
+                .scheme(endpoint.getBaseUri().getScheme())
+                .host(endpoint.getBaseUri().getHost())
+                .port(endpoint.getBaseUri().getPort())
+                .build(true)
+                .toUri();
+
+        endpoint.started();
+        try {
+            ClientHttpResponse response = execution.execute(new HttpRequestWrapper(request) {
+                @Override
+                public URI getURI() {
+                    return routedUri;
+                }
+            }, body);
+
+            //4xx is the caller's problem, not a sign of a sick instance
+            if (response.getStatusCode().is5xxServerError()) {
+                loadBalancer.onFailure(endpoint);
+            } else {
+                loadBalancer.onSuccess(endpoint);
+            }
+            return response;
+        } catch (IOException e) {
+            //an interrupted thread is a hedge loser that was cancelled, not a sick instance
+            if (!Thread.currentThread().isInterrupted()) {
+                loadBalancer.onFailure(endpoint);
+            }
+            throw e;
+        } finally {
+            endpoint.finished();
+        }
+    }
+
+    private boolean isRootUri(URI uri) {
+        return rootUri.getHost().equalsIgnoreCase(uri.getHost())
+                && rootUri.getPort() == uri.getPort()
+                && rootUri.getScheme().equalsIgnoreCase(uri.getScheme());
+    }
+}
@@ -0,0 +1,133 @@
+package com.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * times the exchange itself (sending the request until the response headers are in) as beer.client.network and counts
+ * the bytes going each way. It runs after the OAuth interceptor, so token acquisition is not part of the network time
+ */
+public class MetricsClientInterceptor implements ClientHttpRequestInterceptor {
+    public static final String NETWORK_TIMER = "beer.client.network";
+    public static final String BYTES_SENT = "beer.client.bytes.sent";
+    public static final String BYTES_RECEIVED = "beer.client.bytes.received";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter bytesSent;
+    private final Counter bytesReceived;
+    //registering looks the meter up by name and tags each time, so each method and status pair is built once
+    private final Map<TimerTags, Timer> networkTimers = new ConcurrentHashMap<>();
+
+    public MetricsClientInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.bytesSent = Counter.builder(BYTES_SENT)
+                .description("Request bodies written by the RestTemplate")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bytesReceived = Counter.builder(BYTES_RECEIVED)
+                .description("Response bodies read by the RestTemplate")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return new CountingClientHttpResponse(response);
+        } finally {
+            sample.stop(networkTimers.computeIfAbsent(new TimerTags(request.getMethod().name(), status),
+                    tags -> Timer.builder(NETWORK_TIMER)
+                            .description("Time until the response headers of a BeerClient request arrive")
+                            .tags("method", tags.method(), "status", tags.status())
+                            .register(meterRegistry)));
+            bytesSent.increment(body.length);
+        }
+    }
+
+    private record TimerTags(String method, String status) {
+    }
+
+    //counts what is actually read off the socket, chunked responses have no Content-Length to rely on
+    private class CountingClientHttpResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private InputStream body;
+        private long bytesRead;
+
+        CountingClientHttpResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        @Deprecated
+        public int getRawStatusCode() throws IOException {
+            return delegate.getStatusCode().value();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int read = super.read();
+                        if (read != -1) {
+                            bytesRead++;
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read > 0) {
+                            bytesRead += read;
+                        }
+                        return read;
+                    }
+                };
+            }
+            return body;
+        }
+
+        //one counter update per response instead of one per buffer
+        @Override
+        public void close() {
+            bytesReceived.increment(bytesRead);
+            bytesRead = 0;
+            delegate.close();
+        }
+    }
+}
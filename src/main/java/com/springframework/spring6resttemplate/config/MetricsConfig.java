@@ -0,0 +1,86 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.springframework.spring6resttemplate.client.AsyncBeerClientImpl;
+import com.springframework.spring6resttemplate.client.BeerCache;
+import com.springframework.spring6resttemplate.client.RequestCoalescer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+public class MetricsConfig {
+
+    //gauges and counters are read when the registry is scraped, nothing is added to the request path. The pool gauges
+    //follow the selected transport and read 0 until the first request creates it. The async client is a lazy proxy, it
+    //sits on top of the RestTemplate whose observation customizer needs this registry
+    @Bean
+    MeterBinder beerClientMeters(ConnectionPoolStats connectionPoolStats, BeerCache beerCache,
+                                 RequestCoalescer requestCoalescer, @Lazy AsyncBeerClientImpl asyncBeerClient,
+                                 LoadBalancer beerServiceLoadBalancer, ObjectProvider<DiskResponseCache> diskResponseCacheProvider,
+                                 ObjectProvider<AdaptiveConcurrencyLimit> concurrencyLimitProvider) {
+        return registry -> {
+            Gauge.builder("beer.client.pool.leased", connectionPoolStats, ConnectionPoolStats::getLeased)
+                    .description("Pooled connections (HTTP2 streams) currently in use").register(registry);
+            Gauge.builder("beer.client.pool.available", connectionPoolStats, ConnectionPoolStats::getAvailable)
+                    .description("Idle pooled connections (free HTTP2 streams) ready for reuse").register(registry);
+            Gauge.builder("beer.client.pool.pending", connectionPoolStats, ConnectionPoolStats::getPending)
+                    .description("Requests waiting for a pooled connection or stream").register(registry);
+            Gauge.builder("beer.client.pool.max", connectionPoolStats, ConnectionPoolStats::getMax)
+                    .description("Maximum size of the connection pool (HTTP2 streams over all connections)").register(registry);
+
+            Gauge.builder("beer.client.cache.size", beerCache, BeerCache::size)
+                    .description("Beers held by the client side cache").register(registry);
+            FunctionCounter.builder("beer.client.cache.requests", beerCache, BeerCache::getHitCount)
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("beer.client.cache.requests", beerCache, BeerCache::getMissCount)
+                    .tag("result", "miss").register(registry);
+            FunctionCounter.builder("beer.client.cache.revalidations", beerCache, BeerCache::getRevalidationCount)
+                    .description("Stale entries confirmed by a 304").register(registry);
+            FunctionCounter.builder("beer.client.cache.evictions", beerCache, BeerCache::getEvictionCount)
+                    .register(registry);
+
+            FunctionCounter.builder("beer.client.coalescer.requests", requestCoalescer, RequestCoalescer::getExecutedCount)
+                    .tag("result", "executed").register(registry);
+            FunctionCounter.builder("beer.client.coalescer.requests", requestCoalescer, RequestCoalescer::getCoalescedCount)
+                    .tag("result", "coalesced").register(registry);
+
+            diskResponseCacheProvider.ifAvailable(diskCache -> {
+                Gauge.builder("beer.client.disk.cache.size", diskCache, DiskResponseCache::size)
+                        .description("Responses held by the on disk cache").register(registry);
+                Gauge.builder("beer.client.disk.cache.segment", diskCache, DiskResponseCache::getSegmentBytes)
+                        .baseUnit("bytes").description("Bytes written to the current segment file").register(registry);
+                FunctionCounter.builder("beer.client.disk.cache.requests", diskCache, DiskResponseCache::getHitCount)
+                        .tag("result", "hit").register(registry);
+                FunctionCounter.builder("beer.client.disk.cache.requests", diskCache, DiskResponseCache::getMissCount)
+                        .tag("result", "miss").register(registry);
+                FunctionCounter.builder("beer.client.disk.cache.revalidations", diskCache, DiskResponseCache::getRevalidationCount)
+                        .register(registry);
+                FunctionCounter.builder("beer.client.disk.cache.compactions", diskCache, DiskResponseCache::getCompactionCount)
+                        .register(registry);
+            });
+
+            concurrencyLimitProvider.ifAvailable(concurrencyLimit -> {
+                Gauge.builder("beer.client.limiter.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                        .description("Calls allowed in flight to the beer service").register(registry);
+                Gauge.builder("beer.client.limiter.inflight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                        .description("Calls in flight to the beer service").register(registry);
+            });
+
+            for (LoadBalancer.Endpoint endpoint : beerServiceLoadBalancer.getEndpoints()) {
+                String instance = endpoint.getBaseUri().toString();
+                Gauge.builder("beer.client.instance.outstanding", endpoint, LoadBalancer.Endpoint::getOutstanding)
+                        .tag("instance", instance).register(registry);
+                Gauge.builder("beer.client.instance.ejected", endpoint, e -> beerServiceLoadBalancer.isEjected(e) ? 1 : 0)
+                        .tag("instance", instance).register(registry);
+            }
+
+            Gauge.builder("beer.client.async.permits", asyncBeerClient, AsyncBeerClientImpl::availablePermits)
+                    .strongReference(true) //nothing else holds the proxy
+                    .description("Free slots of the async client concurrency limit").register(registry);
+        };
+    }
+}
@@ -1,5 +1,10 @@
 package com.springframework.spring6resttemplate.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
@@ -8,56 +13,96 @@ import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 
-import static java.util.Objects.isNull;
-
 /**
  * inspect to see if there is authentication and if it is not, is going to add it for us in conjunction with the
- * authentication manager
+ * authentication manager. The registration and the token holder are only looked up on the first request, so a
+ * context that never calls the beer service does not pay for them
  */
 @Component
 public class OAuthClientInterceptor implements ClientHttpRequestInterceptor {
+    public static final Duration DEFAULT_REFRESH_SKEW = Duration.ofSeconds(60);
+
     private final OAuth2AuthorizedClientManager manager;
-    private final Authentication principal;
-    private final ClientRegistration clientRegistration;
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final Duration refreshSkew;
+    private final MeterRegistry meterRegistry;
+
+    private volatile OAuthTokenHolder tokenHolder;
 
     public OAuthClientInterceptor(OAuth2AuthorizedClientManager manager, ClientRegistrationRepository clientRegistrationRepository) {
+        this(manager, clientRegistrationRepository, DEFAULT_REFRESH_SKEW);
+    }
+
+    public OAuthClientInterceptor(OAuth2AuthorizedClientManager manager, ClientRegistrationRepository clientRegistrationRepository,
+                                  Duration refreshSkew) {
+        this(manager, clientRegistrationRepository, refreshSkew, Metrics.globalRegistry);
+    }
+
+    //the manager is a lazy proxy, the authorized client service behind it is created on the first token fetch
+    @Autowired
+    public OAuthClientInterceptor(@Lazy OAuth2AuthorizedClientManager manager, ClientRegistrationRepository clientRegistrationRepository,
+                                  @Value("${rest.template.oauth.refreshSkew:60s}") Duration refreshSkew,
+                                  MeterRegistry meterRegistry) {
         this.manager = manager;
-        this.principal = createPrincipal();
-        this.clientRegistration = clientRegistrationRepository.findByRegistrationId("springauth");
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.refreshSkew = refreshSkew;
+        this.meterRegistry = meterRegistry;
     }
 
     //intercept the request
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
-        OAuth2AuthorizeRequest oAuth2AuthorizeRequest = OAuth2AuthorizeRequest
-                .withClientRegistrationId(clientRegistration.getRegistrationId())
-                .principal(createPrincipal())
-                .build();
+        request.getHeaders().add(HttpHeaders.AUTHORIZATION, getAuthorizationHeader());
 
-        OAuth2AuthorizedClient client = manager.authorize(oAuth2AuthorizeRequest);
+        return execution.execute(request, body);
+    }
 
-        if (isNull(client)) {
-            throw new IllegalStateException("Missing credentials");
-        }
+    //cached "Bearer ..." value, also used by clients that do not go through the RestTemplate interceptor chain
+    public String getAuthorizationHeader() {
+        return tokenHolder().getAuthorizationHeader();
+    }
 
-        request.getHeaders().add(HttpHeaders.AUTHORIZATION,
-                "Bearer " + client.getAccessToken().getTokenValue());
+    //cached value only when no refresh is due, null means the caller has to go through getAuthorizationHeader
+    public String peekAuthorizationHeader() {
+        OAuthTokenHolder holder = tokenHolder;
+        return holder == null ? null : holder.peekAuthorizationHeader();
+    }
 
-        return execution.execute(request, body);
+    private OAuthTokenHolder tokenHolder() {
+        OAuthTokenHolder holder = tokenHolder;
+        if (holder == null) {
+            synchronized (this) {
+                holder = tokenHolder;
+                if (holder == null) {
+                    ClientRegistration clientRegistration = clientRegistrationRepository.findByRegistrationId("springauth");
+
+                    //the authorize request never changes for client credentials, so build it once
+                    OAuth2AuthorizeRequest oAuth2AuthorizeRequest = OAuth2AuthorizeRequest
+                            .withClientRegistrationId(clientRegistration.getRegistrationId())
+                            .principal(createPrincipal(clientRegistration))
+                            .build();
+
+                    holder = new OAuthTokenHolder(manager, oAuth2AuthorizeRequest, refreshSkew, Clock.systemUTC(), meterRegistry);
+                    tokenHolder = holder;
+                }
+            }
+        }
+        return holder;
     }
 
     //standard spring security component which holds security information about a principle (someone that has been authorized in the context of spring)
-    private Authentication createPrincipal() {
+    private Authentication createPrincipal(ClientRegistration clientRegistration) {
         return new Authentication() {
             @Override
             public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -0,0 +1,42 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebClient counterpart of {@link OAuthClientInterceptor}, uses the same cached client credentials token. A token
+ * fetch blocks, so it is moved off the event loop; the common case is a plain field read
+ */
+public class OAuthExchangeFilterFunction implements ExchangeFilterFunction {
+    private final OAuthClientInterceptor authClientInterceptor;
+
+    public OAuthExchangeFilterFunction(OAuthClientInterceptor authClientInterceptor) {
+        this.authClientInterceptor = authClientInterceptor;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return authorizationHeader()
+                .flatMap(header -> next.exchange(ClientRequest.from(request)
+                        .header(HttpHeaders.AUTHORIZATION, header)
+                        .build()));
+    }
+
+    private Mono<String> authorizationHeader() {
+        return Mono.defer(() -> {
+            String cached = authClientInterceptor.peekAuthorizationHeader();
+
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            return Mono.fromCallable(authClientInterceptor::getAuthorizationHeader)
+                    .subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+}
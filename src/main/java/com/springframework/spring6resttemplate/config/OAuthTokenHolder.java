@@ -0,0 +1,144 @@
+package com.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+
+/**
+ * keeps the current bearer header in memory so the interceptor only reads a field on the hot path. The token is
+ * refreshed a little before it expires (refreshSkew), only one thread talks to the authorization server at a time and
+ * the others keep using the old token while it is still valid
+ */
+public class OAuthTokenHolder {
+    public static final String TOKEN_TIMER = "beer.client.oauth.token";
+
+    private final OAuth2AuthorizedClientManager manager;
+    private final OAuth2AuthorizeRequest authorizeRequest;
+    private final Duration refreshSkew;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<CachedToken> current = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public OAuthTokenHolder(OAuth2AuthorizedClientManager manager, OAuth2AuthorizeRequest authorizeRequest,
+                            Duration refreshSkew, Clock clock) {
+        this(manager, authorizeRequest, refreshSkew, clock, Metrics.globalRegistry);
+    }
+
+    public OAuthTokenHolder(OAuth2AuthorizedClientManager manager, OAuth2AuthorizeRequest authorizeRequest,
+                            Duration refreshSkew, Clock clock, MeterRegistry meterRegistry) {
+        this.manager = manager;
+        this.authorizeRequest = authorizeRequest;
+        this.refreshSkew = refreshSkew;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    //returns the full "Bearer ..." header value
+    public String getAuthorizationHeader() {
+        CachedToken token = current.get();
+        Instant now = clock.instant();
+
+        if (token != null && now.isBefore(token.refreshAt())) {
+            return token.headerValue();
+        }
+
+        if (token != null && now.isBefore(token.expiresAt())) {
+            //inside the refresh window, someone else is already refreshing so keep using the valid token
+            if (!refreshLock.tryLock()) {
+                return token.headerValue();
+            }
+            try {
+                return refreshIfStale(token).headerValue();
+            } catch (RuntimeException e) {
+                //the old token is still good, try again on the next call
+                return token.headerValue();
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+
+        //no usable token, wait for whoever is fetching one
+        refreshLock.lock();
+        try {
+            return refreshIfStale(token).headerValue();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    //cached header if it does not need a refresh yet, null otherwise. Never blocks, for callers on event loop threads
+    public String peekAuthorizationHeader() {
+        CachedToken token = current.get();
+
+        if (token != null && clock.instant().isBefore(token.refreshAt())) {
+            return token.headerValue();
+        }
+        return null;
+    }
+
+    //drops the cached token, next call goes back to the authorization server
+    public void invalidate() {
+        current.set(null);
+    }
+
+    private CachedToken refreshIfStale(CachedToken seen) {
+        CachedToken latest = current.get();
+
+        //another thread refreshed while we were waiting for the lock
+        if (latest != seen && latest != null && clock.instant().isBefore(latest.refreshAt())) {
+            return latest;
+        }
+
+        OAuth2AuthorizedClient client = authorize();
+
+        CachedToken refreshed = CachedToken.of(client.getAccessToken(), refreshSkew);
+        current.set(refreshed);
+        return refreshed;
+    }
+
+    //only the calls that reach the manager are timed, serving the cached header is not worth a clock read
+    private OAuth2AuthorizedClient authorize() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "FAILURE";
+
+        try {
+            OAuth2AuthorizedClient client = manager.authorize(authorizeRequest);
+
+            if (isNull(client)) {
+                throw new IllegalStateException("Missing credentials");
+            }
+
+            outcome = "SUCCESS";
+            return client;
+        } finally {
+            sample.stop(Timer.builder(TOKEN_TIMER)
+                    .description("Time spent getting an access token from the authorized client manager")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private record CachedToken(String headerValue, Instant refreshAt, Instant expiresAt) {
+
+        static CachedToken of(OAuth2AccessToken accessToken, Duration refreshSkew) {
+            //tokens without an expiry are treated as never expiring
+            Instant expiresAt = accessToken.getExpiresAt() == null ? Instant.MAX : accessToken.getExpiresAt();
+            Instant refreshAt = expiresAt.equals(Instant.MAX) ? Instant.MAX : expiresAt.minus(refreshSkew);
+
+            return new CachedToken("Bearer " + accessToken.getTokenValue(), refreshAt, expiresAt);
+        }
+    }
+}
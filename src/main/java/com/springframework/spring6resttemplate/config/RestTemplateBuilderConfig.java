@@ -1,28 +1,164 @@
 package com.springframework.spring6resttemplate.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
 @Configuration
 public class RestTemplateBuilderConfig {
 
     @Value("${rest.template.rootUrl}")
     String rootUrl;
 
+    //replicas to spread the traffic over, empty means rootUrl is the only instance
+    @Value("${rest.template.rootUrls:}")
+    String[] rootUrls;
+
+    @Value("${rest.template.loadBalancer.strategy:P2C}")
+    LoadBalancer.Strategy loadBalancerStrategy;
+
+    @Value("${rest.template.loadBalancer.ejectAfterFailures:5}")
+    int ejectAfterFailures;
+
+    @Value("${rest.template.loadBalancer.ejectionTime:30s}")
+    Duration ejectionTime;
+
+    @Value("${rest.template.loadBalancer.maxEjectionPercent:50}")
+    int maxEjectionPercent;
+
+    @Value("${rest.template.pool.maxTotal:200}")
+    int maxTotalConnections;
+
+    @Value("${rest.template.pool.maxPerRoute:50}")
+    int maxConnectionsPerRoute;
+
+    @Value("${rest.template.pool.idleEviction:30s}")
+    Duration idleEviction;
+
+    @Value("${rest.template.timeout.connect:2s}")
+    Duration connectTimeout;
+
+    @Value("${rest.template.timeout.read:10s}")
+    Duration readTimeout;
+
+    @Value("${rest.template.timeout.poolAcquire:1s}")
+    Duration poolAcquireTimeout;
+
+    //Accept-Encoding gzip/deflate, decompressed as the body is read
+    @Value("${rest.template.compression.responses:true}")
+    boolean compressResponses;
+
+    @Value("${rest.template.compression.requests:false}")
+    boolean compressRequests;
+
+    @Value("${rest.template.compression.requestThreshold:2KB}")
+    DataSize requestCompressionThreshold;
+
+    @Value("${rest.template.transport:HTTP1}")
+    Transport transport;
+
+    //HTTP2 only, the few connections every call is multiplexed over and the streams allowed on each
+    @Value("${rest.template.http2.connections:2}")
+    int http2Connections;
+
+    @Value("${rest.template.http2.maxStreamsPerConnection:100}")
+    int http2MaxStreamsPerConnection;
+
+    @Value("${rest.template.wireFormat:JSON}")
+    WireFormat wireFormat;
+
+    @Value("${rest.template.oauth.refreshSkew:60s}")
+    Duration tokenRefreshSkew;
+
+    @Value("${rest.template.diskCache.directory:${java.io.tmpdir}/beer-client-cache}")
+    Path diskCacheDirectory;
+
+    @Value("${rest.template.diskCache.maxSize:64MB}")
+    DataSize diskCacheMaxSize;
+
+    //used when a response has no Cache-Control max-age
+    @Value("${rest.template.diskCache.defaultTtl:5m}")
+    Duration diskCacheDefaultTtl;
+
+    @Value("${rest.template.limiter.initialLimit:20}")
+    int limiterInitialLimit;
+
+    @Value("${rest.template.limiter.minLimit:1}")
+    int limiterMinLimit;
+
+    @Value("${rest.template.limiter.maxLimit:64}")
+    int limiterMaxLimit;
+
+    @Value("${rest.template.limiter.backoffRatio:0.9}")
+    double limiterBackoffRatio;
+
+    //latency above tolerance times the lowest recent latency is read as queueing upstream
+    @Value("${rest.template.limiter.tolerance:2.0}")
+    double limiterTolerance;
+
+    //how long a call may queue for a token and a slot, 0 rejects at once
+    @Value("${rest.template.limiter.maxWait:1s}")
+    Duration limiterMaxWait;
+
+    //permits per second for GET/HEAD and for writes, 0 means no cap
+    @Value("${rest.template.limiter.readRate:0}")
+    double limiterReadRate;
+
+    @Value("${rest.template.limiter.writeRate:0}")
+    double limiterWriteRate;
+
+    @Value("${rest.template.limiter.burst:10}")
+    int limiterBurst;
+
     @Bean
     OAuth2AuthorizedClientManager auth2AuthorizedClientManager(ClientRegistrationRepository clientRegistrationRepository,
                                                                OAuth2AuthorizedClientService oAuth2AuthorizedClientService){ //handle the call to the authorization server
         var authorizedClientProvider = OAuth2AuthorizedClientProviderBuilder.builder()
-                .clientCredentials()
+                .clientCredentials(clientCredentials -> clientCredentials.clockSkew(tokenRefreshSkew)) //same skew as OAuthTokenHolder
                 .build();
 
         var authorizedClientManager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(clientRegistrationRepository, oAuth2AuthorizedClientService);
@@ -31,14 +167,176 @@ public class RestTemplateBuilderConfig {
         return authorizedClientManager;
     }
 
+    @Bean
+    LoadBalancer beerServiceLoadBalancer(){
+        List<URI> baseUris = Arrays.stream(rootUrls)
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(URI::create)
+                .toList();
+
+        return new LoadBalancer(baseUris.isEmpty() ? List.of(URI.create(rootUrl)) : baseUris, loadBalancerStrategy,
+                ejectAfterFailures, ejectionTime, maxEjectionPercent, Clock.systemUTC());
+    }
+
+    //one pool shared by every RestTemplate, keeps connections alive between calls. The manager pools per route, so every
+    //replica gets its own maxPerRoute connections and the total is raised to fit them all
+    @Bean
+    PoolingHttpClientConnectionManager poolingConnectionManager(LoadBalancer beerServiceLoadBalancer,
+                                                                ConnectionPoolStats connectionPoolStats){
+        int replicas = beerServiceLoadBalancer.getEndpoints().size();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(Math.max(maxTotalConnections, maxConnectionsPerRoute * replicas))
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .build();
+        connectionPoolStats.bind(connectionManager);
+        return connectionManager;
+    }
+
+    @Bean
+    CloseableHttpClient pooledHttpClient(PoolingHttpClientConnectionManager poolingConnectionManager){
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeout.toMillis()))
+                .build();
+
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(poolingConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()));
+
+        if (!compressResponses) {
+            httpClientBuilder.disableContentCompression();
+        }
+        return httpClientBuilder.build();
+    }
+
+    //GET responses kept on disk between restarts, so a warm start does not fetch the same pages again. When another
+    //process holds the directory this one runs without the cache (a null bean) instead of sharing the segment file
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "rest.template.diskCache.enabled", havingValue = "true")
+    DiskResponseCache diskResponseCache(){
+        //a single mapped buffer, so the segment has to fit in an int
+        if (diskCacheMaxSize.toBytes() > Integer.MAX_VALUE || diskCacheMaxSize.toBytes() <= 0) {
+            throw new IllegalArgumentException("rest.template.diskCache.maxSize must be between 1B and 2GB, was " + diskCacheMaxSize);
+        }
+
+        try {
+            return new DiskResponseCache(diskCacheDirectory, (int) diskCacheMaxSize.toBytes());
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rest.template.limiter.enabled", havingValue = "true", matchIfMissing = true)
+    AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(){
+        return new AdaptiveConcurrencyLimit(limiterInitialLimit, limiterMinLimit, limiterMaxLimit, limiterBackoffRatio,
+                limiterTolerance);
+    }
+
+    //the pooled http client is only created for HTTP1
+    @Bean
+    ClientHttpRequestFactory pooledRequestFactory(ObjectProvider<CloseableHttpClient> pooledHttpClientProvider,
+                                                  ConnectionPoolStats connectionPoolStats){
+        if (transport == Transport.HTTP2) {
+            Http2ClientHttpRequestFactory http2RequestFactory = new Http2ClientHttpRequestFactory(http2Connections,
+                    http2MaxStreamsPerConnection, connectTimeout, readTimeout, poolAcquireTimeout);
+            connectionPoolStats.bind(http2RequestFactory);
+            return http2RequestFactory;
+        }
+        return new HttpComponentsClientHttpRequestFactory(pooledHttpClientProvider.getObject());
+    }
+
+    //bound by whichever transport the first request creates, reading it creates nothing
+    @Bean
+    ConnectionPoolStats connectionPoolStats(){
+        return new ConnectionPoolStats();
+    }
+
     @Bean
     RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer config,
-                                            OAuthClientInterceptor authClientInterceptor){
+                                            OAuthClientInterceptor authClientInterceptor,
+                                            @Lazy ClientHttpRequestFactory pooledRequestFactory,
+                                            LoadBalancer beerServiceLoadBalancer,
+                                            ClientRegistrationRepository clientRegistrationRepository,
+                                            ObjectProvider<DiskResponseCache> diskResponseCacheProvider,
+                                            ObjectProvider<AdaptiveConcurrencyLimit> concurrencyLimitProvider,
+                                            ObjectProvider<MeterRegistry> meterRegistryProvider){
 
         assert rootUrl != null;
 
+        //slices without actuator get the global registry, which records nothing unless a registry is added to it
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+
+        //uris keep pointing at rootUrl, the load balancing interceptor swaps in the replica for each request
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+        diskResponseCacheProvider.ifAvailable(diskResponseCache -> interceptors.add(new DiskCacheInterceptor(diskResponseCache,
+                authScope(clientRegistrationRepository), diskCacheDefaultTtl, Clock.systemUTC()))); //first, a hit needs no token
+        concurrencyLimitProvider.ifAvailable(concurrencyLimit -> interceptors.add(new AdaptiveLimitInterceptor(concurrencyLimit,
+                rateLimits(), limiterMaxWait, Clock.systemUTC(), meterRegistry))); //cache hits never count against the limit
+        interceptors.add(authClientInterceptor);
+        if (compressRequests) {
+            interceptors.add(new RequestCompressionInterceptor((int) requestCompressionThreshold.toBytes()));
+        }
+        if (beerServiceLoadBalancer.getEndpoints().size() > 1) {
+            interceptors.add(new LoadBalancingInterceptor(URI.create(rootUrl), beerServiceLoadBalancer));
+        }
+        interceptors.add(new MetricsClientInterceptor(meterRegistry)); //metrics last, so the token fetch is not network time
+
+        //hand out the same factory instance so every built RestTemplate shares the pool. It is a lazy proxy, the http
+        //client and its eviction thread are only created by the first request
         return config.configure(new RestTemplateBuilder())
-                .additionalInterceptors(authClientInterceptor)
+                .requestFactory(() -> pooledRequestFactory)
+                .additionalInterceptors(interceptors)
+                .additionalCustomizers(restTemplate -> configureConverters(restTemplate, meterRegistry))
                 .uriTemplateHandler(new DefaultUriBuilderFactory(rootUrl));
     }
+
+    private Map<String, TokenBucket> rateLimits(){
+        Map<String, TokenBucket> rateLimits = new HashMap<>();
+        if (limiterReadRate > 0) {
+            rateLimits.put(AdaptiveLimitInterceptor.READ, new TokenBucket(limiterReadRate, limiterBurst, Clock.systemUTC()));
+        }
+        if (limiterWriteRate > 0) {
+            rateLimits.put(AdaptiveLimitInterceptor.WRITE, new TokenBucket(limiterWriteRate, limiterBurst, Clock.systemUTC()));
+        }
+        return rateLimits;
+    }
+
+    //cached responses are only shared between callers with the same registration and scopes
+    private static String authScope(ClientRegistrationRepository clientRegistrationRepository){
+        ClientRegistration registration = clientRegistrationRepository.findByRegistrationId("springauth");
+        return registration.getRegistrationId() + ":" + String.join(",", new TreeSet<>(registration.getScopes()));
+    }
+
+    //swap the json converter for the timed one, keeping its position and ObjectMapper, and put the binary format in front
+    private void configureConverters(RestTemplate restTemplate, MeterRegistry meterRegistry){
+        List<HttpMessageConverter<?>> converters = restTemplate.getMessageConverters();
+        ObjectMapper jsonMapper = null;
+
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter jsonConverter) {
+                jsonMapper = jsonConverter.getObjectMapper();
+                if (!(jsonConverter instanceof TimedJackson2HttpMessageConverter)) {
+                    converters.set(i, new TimedJackson2HttpMessageConverter(jsonMapper, meterRegistry));
+                }
+            }
+        }
+
+        //the defaults pick up smile and cbor from the classpath, only the configured format should be advertised
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+
+        //first in the list means first in Accept, json stays behind it as the fallback
+        if (jsonMapper != null && wireFormat != WireFormat.JSON) {
+            converters.add(0, wireFormat.binaryConverter(jsonMapper));
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.springframework.spring6resttemplate.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * rate cap of permitsPerSecond with bursts up to burst. A caller that has to wait reserves its token up front (the
+ * bucket goes negative), so waiting callers are served in order and none of them is overtaken by a later one
+ */
+public class TokenBucket {
+    private final double permitsPerSecond;
+    private final double burst;
+    private final Clock clock;
+
+    private double tokens;
+    private Instant lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst, Clock clock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.clock = clock;
+        this.tokens = this.burst;
+        this.lastRefill = clock.instant();
+    }
+
+    /**
+     * takes a token, returns how long the caller has to wait before using it, or null when that would be longer than
+     * maxWait and nothing was taken
+     */
+    public synchronized Duration reserve(Duration maxWait) {
+        Instant now = clock.instant();
+        double elapsedSeconds = Duration.between(lastRefill, now).toNanos() / 1e9;
+        tokens = Math.min(burst, tokens + elapsedSeconds * permitsPerSecond);
+        lastRefill = now;
+
+        Duration wait = tokens >= 1 ? Duration.ZERO : Duration.ofNanos((long) ((1 - tokens) / permitsPerSecond * 1e9));
+        if (wait.compareTo(maxWait) > 0) {
+            return null;
+        }
+
+        tokens -= 1;
+        return wait;
+    }
+}
@@ -0,0 +1,10 @@
+package com.springframework.spring6resttemplate.config;
+
+/**
+ * how the RestTemplate talks to the beer service. HTTP1 keeps a pool of connections with one call in flight on each,
+ * HTTP2 multiplexes the calls as streams over a few connections (h2c through an Upgrade on plain http)
+ */
+public enum Transport {
+    HTTP1,
+    HTTP2
+}
@@ -0,0 +1,74 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+
+/**
+ * non blocking transport for {@link com.springframework.spring6resttemplate.client.ReactiveBeerClient}, switched on
+ * with rest.template.reactive.enabled
+ */
+@Configuration
+@ConditionalOnProperty(name = "rest.template.reactive.enabled", havingValue = "true")
+public class WebClientConfig {
+
+    @Value("${rest.template.rootUrl}")
+    String rootUrl;
+
+    @Value("${rest.template.reactive.maxConnections:100}")
+    int maxConnections;
+
+    @Value("${rest.template.reactive.pendingAcquireMax:1000}")
+    int pendingAcquireMax;
+
+    @Value("${rest.template.reactive.eventLoopThreads:4}")
+    int eventLoopThreads;
+
+    @Value("${rest.template.pool.idleEviction:30s}")
+    Duration idleEviction;
+
+    @Value("${rest.template.timeout.poolAcquire:1s}")
+    Duration poolAcquireTimeout;
+
+    @Value("${rest.template.timeout.read:10s}")
+    Duration readTimeout;
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider beerConnectionProvider() {
+        return ConnectionProvider.builder("beer-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(poolAcquireTimeout)
+                .maxIdleTime(idleEviction)
+                .build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    LoopResources beerLoopResources() {
+        return LoopResources.create("beer-client", eventLoopThreads, true);
+    }
+
+    @Bean
+    WebClient beerWebClient(WebClient.Builder webClientBuilder,
+                            ConnectionProvider beerConnectionProvider,
+                            LoopResources beerLoopResources,
+                            OAuthClientInterceptor authClientInterceptor) {
+        HttpClient httpClient = HttpClient.create(beerConnectionProvider)
+                .runOn(beerLoopResources)
+                .responseTimeout(readTimeout);
+
+        return webClientBuilder
+                .baseUrl(rootUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(new OAuthExchangeFilterFunction(authClientInterceptor))
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * body encoding the client asks the beer service for. A binary format is listed first in Accept with json after it,
+ * so a server that only speaks json keeps working. Request bodies are always sent as json
+ */
+public enum WireFormat {
+    JSON,
+    SMILE,
+    CBOR;
+
+    //converter for the binary format, built from the json mapper so it has the same modules. Null for JSON
+    public GenericHttpMessageConverter<Object> binaryConverter(ObjectMapper jsonMapper) {
+        return switch (this) {
+            case JSON -> null;
+            case SMILE -> new MappingJackson2SmileHttpMessageConverter(jsonMapper.copyWith(new SmileFactory())) {
+                @Override
+                public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+                    return isRequested(mediaType) && super.canWrite(clazz, mediaType);
+                }
+            };
+            case CBOR -> new MappingJackson2CborHttpMessageConverter(jsonMapper.copyWith(new CBORFactory())) {
+                @Override
+                public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+                    return isRequested(mediaType) && super.canWrite(clazz, mediaType);
+                }
+            };
+        };
+    }
+
+    //only write binary when the caller set that content type, a request without one falls through to json
+    private static boolean isRequested(MediaType mediaType) {
+        return mediaType != null && !mediaType.isWildcardType() && !mediaType.isWildcardSubtype();
+    }
+}
@@ -0,0 +1,61 @@
+package com.springframework.spring6resttemplate.model;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * outcome of a batch call, one entry per key in successes, failures or inFlight. A failed item never aborts the rest
+ * of the batch. Items never started before the deadline are failures with a TimeoutException, items still running
+ * when it hit are inFlight: their outcome is unknown (a write may still land) and the future completes with it
+ */
+public class BatchResult<K, V> {
+    private final Map<K, V> successes;
+    private final Map<K, Exception> failures;
+    private final Map<K, CompletableFuture<V>> inFlight;
+    private final Duration elapsed;
+
+    public BatchResult(Map<K, V> successes, Map<K, Exception> failures, Duration elapsed) {
+        this(successes, failures, Map.of(), elapsed);
+    }
+
+    public BatchResult(Map<K, V> successes, Map<K, Exception> failures, Map<K, CompletableFuture<V>> inFlight, Duration elapsed) {
+        this.successes = Collections.unmodifiableMap(successes);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.inFlight = Collections.unmodifiableMap(inFlight);
+        this.elapsed = elapsed;
+    }
+
+    public Map<K, V> getSuccesses() {
+        return successes;
+    }
+
+    public Map<K, Exception> getFailures() {
+        return failures;
+    }
+
+    //not safe to retry blindly, wait for the future or check the service first
+    public Map<K, CompletableFuture<V>> getInFlight() {
+        return inFlight;
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty() && inFlight.isEmpty();
+    }
+
+    public int size() {
+        return successes.size() + failures.size() + inFlight.size();
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    //finished items (successful or not) per second
+    public double getThroughput() {
+        double seconds = elapsed.toNanos() / 1_000_000_000d;
+        int finished = successes.size() + failures.size();
+        return seconds == 0 ? finished : finished / seconds;
+    }
+}
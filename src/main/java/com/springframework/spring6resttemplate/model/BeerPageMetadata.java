@@ -0,0 +1,11 @@
+package com.springframework.spring6resttemplate.model;
+
+/**
+ * paging information of a beer list response, without the content
+ */
+public record BeerPageMetadata(int number, int size, long totalElements) {
+
+    public int totalPages() {
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / (double) size);
+    }
+}
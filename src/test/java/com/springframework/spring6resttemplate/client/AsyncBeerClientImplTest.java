@@ -0,0 +1,120 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncBeerClientImplTest {
+
+    BeerClient beerClient;
+    ExecutorService executor;
+    AsyncBeerClientImpl asyncBeerClient;
+
+    @BeforeEach
+    void setUp() {
+        beerClient = mock(BeerClient.class);
+        executor = Executors.newFixedThreadPool(16);
+        asyncBeerClient = new AsyncBeerClientImpl(beerClient, executor, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrencyIsCapped() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        when(beerClient.getBeerById(any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return BeerDTO.builder().id(invocation.getArgument(0)).build();
+        });
+
+        List<CompletableFuture<BeerDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            futures.add(asyncBeerClient.getBeerById(UUID.randomUUID()));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+        assertThat(asyncBeerClient.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void testCallsOverTheCapDoNotHoldPoolThreads() throws Exception {
+        executor.shutdownNow();
+        executor = Executors.newFixedThreadPool(2);
+        asyncBeerClient = new AsyncBeerClientImpl(beerClient, executor, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(beerClient.getBeerById(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return BeerDTO.builder().id(invocation.getArgument(0)).build();
+        });
+
+        List<CompletableFuture<BeerDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(asyncBeerClient.getBeerById(UUID.randomUUID()));
+        }
+
+        //one thread runs the call holding the permit, the waiting calls leave the other one free
+        assertThat(executor.submit(() -> "free").get(1, TimeUnit.SECONDS)).isEqualTo("free");
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertThat(asyncBeerClient.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void testMorePermitsThanThreadsIsRejected() {
+        assertThrows(IllegalStateException.class, () -> new AsyncBeerClientImpl(beerClient, executor, 17));
+    }
+
+    @Test
+    void testFailureCompletesExceptionally() {
+        when(beerClient.getBeerById(any())).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> asyncBeerClient.getBeerById(UUID.randomUUID()).get(5, TimeUnit.SECONDS));
+
+        assertThat(exception.getCause()).isInstanceOf(HttpClientErrorException.class);
+        assertThat(asyncBeerClient.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectedCallGivesItsPermitBack() {
+        executor.shutdown();
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> asyncBeerClient.getBeerById(UUID.randomUUID()).get(5, TimeUnit.SECONDS));
+
+        assertThat(exception.getCause()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(asyncBeerClient.availablePermits()).isEqualTo(2);
+    }
+}
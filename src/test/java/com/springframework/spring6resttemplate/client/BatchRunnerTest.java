@@ -0,0 +1,116 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BatchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchRunnerTest {
+
+    ExecutorService executor;
+    BatchRunner batchRunner;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        batchRunner = new BatchRunner(executor, 4, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrencyIsCapped() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> keys = IntStream.range(0, 40).boxed().toList();
+
+        BatchResult<Integer, Integer> result = batchRunner.run(keys, key -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(5);
+            inFlight.decrementAndGet();
+            return key * 2;
+        }, 3, Duration.ofSeconds(5));
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getSuccesses()).hasSize(40).containsEntry(7, 14);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void testDeadlineSeparatesUnstartedFromInFlightItems() throws Exception {
+        List<Integer> keys = IntStream.range(0, 10).boxed().toList();
+
+        BatchResult<Integer, Integer> result = batchRunner.run(keys, key -> {
+            if (key >= 2) {
+                sleep(2_000);
+            }
+            return key;
+        }, 2, Duration.ofMillis(200));
+
+        assertThat(result.getSuccesses()).containsOnlyKeys(0, 1);
+        //2 and 3 were sent and may still land, the rest never started
+        assertThat(result.getInFlight()).containsOnlyKeys(2, 3);
+        assertThat(result.getFailures()).containsOnlyKeys(4, 5, 6, 7, 8, 9);
+        assertThat(result.getFailures().values()).allMatch(TimeoutException.class::isInstance);
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.getElapsed()).isLessThan(Duration.ofSeconds(2));
+
+        assertThat(result.getInFlight().get(2).get(5, TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    void testNullKeysAreRejectedUpFront() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> batchRunner.run(Arrays.asList(1, null, 2), key -> calls.incrementAndGet()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(calls.get()).isZero();
+    }
+
+    @Test
+    void testErrorFailsOnlyItsOwnKey() {
+        BatchResult<Integer, Integer> result = batchRunner.run(List.of(1, 2, 3), key -> {
+            if (key == 2) {
+                throw new AssertionError("broken");
+            }
+            return key;
+        }, 1, Duration.ofSeconds(5));
+
+        assertThat(result.getSuccesses()).containsOnlyKeys(1, 3);
+        assertThat(result.getFailures().get(2)).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(AssertionError.class);
+        assertThat(result.getInFlight()).isEmpty();
+    }
+
+    @Test
+    void testNullResultIsASuccess() {
+        BatchResult<Integer, Void> result = batchRunner.run(List.of(1, 2), key -> null);
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getSuccesses()).containsOnlyKeys(1, 2);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerCacheTest {
+
+    Clock clock = Clock.fixed(Instant.parse("2023-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        BeerCache beerCache = new BeerCache(2, Duration.ofMinutes(1), clock);
+        BeerDTO first = beer();
+        BeerDTO second = beer();
+
+        beerCache.put(first, null);
+        beerCache.put(second, null);
+        beerCache.get(first.getId());
+        beerCache.put(beer(), null);
+
+        assertThat(beerCache.get(first.getId())).isNotNull();
+        assertThat(beerCache.get(second.getId())).isNull();
+        assertThat(beerCache.getEvictionCount()).isEqualTo(1);
+        assertThat(beerCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testEntriesGoStaleAfterTtl() {
+        BeerCache beerCache = new BeerCache(10, Duration.ofSeconds(30), clock);
+        BeerDTO beer = beer();
+        beerCache.put(beer, "\"v1\"");
+
+        BeerCache.Entry entry = beerCache.get(beer.getId());
+        assertThat(beerCache.isFresh(entry)).isTrue();
+
+        BeerCache later = new BeerCache(10, Duration.ofSeconds(30), Clock.offset(clock, Duration.ofMinutes(1)));
+        assertThat(later.isFresh(entry)).isFalse();
+        assertThat(entry.etag()).isEqualTo("\"v1\"");
+        assertThat(entry.version()).isEqualTo(3);
+    }
+
+    @Test
+    void testCachedBeerIsCopied() {
+        BeerCache beerCache = new BeerCache(10, Duration.ofMinutes(1), clock);
+        BeerDTO beer = beer();
+        beerCache.put(beer, null);
+
+        beer.setBeerName("Changed by caller");
+
+        assertThat(beerCache.get(beer.getId()).beer().getBeerName()).isEqualTo("Beer 1");
+    }
+
+    @Test
+    void testDisabledCacheStoresNothing() {
+        BeerCache beerCache = new BeerCache(0, Duration.ofMinutes(1), clock);
+        BeerDTO beer = beer();
+        beerCache.put(beer, null);
+
+        assertThat(beerCache.isEnabled()).isFalse();
+        assertThat(beerCache.get(beer.getId())).isNull();
+    }
+
+    @Test
+    void testOlderVersionDoesNotReplaceNewer() {
+        BeerCache beerCache = new BeerCache(10, Duration.ofMinutes(1), clock);
+        BeerDTO newer = beer();
+        BeerDTO older = newer.toBuilder().version(2).beerName("Before the update").build();
+
+        beerCache.put(newer, "\"v3\"");
+        beerCache.put(older, "\"v2\"");
+        assertThat(beerCache.get(newer.getId()).etag()).isEqualTo("\"v3\"");
+
+        beerCache.put(newer.toBuilder().version(4).build(), "\"v4\"");
+        assertThat(beerCache.get(newer.getId()).version()).isEqualTo(4);
+    }
+
+    @Test
+    void testSegmentsShareMaxEntries() {
+        BeerCache beerCache = new BeerCache(1000, Duration.ofMinutes(1), clock);
+        for (int i = 0; i < 5000; i++) {
+            beerCache.put(beer(), null);
+        }
+
+        assertThat(beerCache.size()).isLessThanOrEqualTo(1000);
+        assertThat(beerCache.getEvictionCount()).isEqualTo(5000 - beerCache.size());
+    }
+
+    private BeerDTO beer() {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(3)
+                .beerName("Beer 1")
+                .build();
+    }
+}
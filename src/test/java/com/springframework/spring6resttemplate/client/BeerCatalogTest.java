@@ -0,0 +1,148 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BeerCatalogTest {
+
+    BeerClient beerClient;
+    Clock clock;
+    Instant now;
+    SimpleMeterRegistry meterRegistry;
+    BeerCatalog catalog;
+    List<BeerDTO> remote;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2024-01-01T00:00:00Z");
+        clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+
+        remote = new ArrayList<>(List.of(
+                beer("Galaxy Cat", BeerStyle.PALE_ALE, "100"),
+                beer("Mango Bobs", BeerStyle.ALE, "101"),
+                beer("Crank", BeerStyle.PALE_ALE, "102"),
+                beer("Sunshine City", BeerStyle.IPA, "103"),
+                beer("Galaxy Dog", BeerStyle.IPA, "104")));
+
+        beerClient = mock(BeerClient.class);
+        servePages();
+        meterRegistry = new SimpleMeterRegistry();
+        catalog = new BeerCatalog(beerClient, Duration.ofSeconds(30), 2, clock, meterRegistry);
+    }
+
+    @Test
+    void testFiltersMatchServiceSemantics() {
+        catalog.sync();
+
+        Page<BeerDTO> page = catalog.listBeersWithFilters("GALAXY", BeerStyle.IPA, false, 1, 25);
+
+        assertThat(page.getContent()).extracting(BeerDTO::getBeerName).containsExactly("Galaxy Dog");
+        assertThat(page.getContent().get(0).getQuantityOnHand()).isNull();
+        assertThat(catalog.listBeersWithFilters(null, null, null, 2, 2).getContent())
+                .extracting(BeerDTO::getBeerName).containsExactly("Galaxy Dog", "Mango Bobs");
+        assertThat(catalog.listBeersWithFilters("a", null, null, null, null).getTotalElements()).isEqualTo(4);
+        assertThat(catalog.listBeersWithFilters("a", null, null, null, null).getContent().get(0).getQuantityOnHand()).isEqualTo(10);
+    }
+
+    @Test
+    void testIndexesAnswerLocally() {
+        catalog.sync();
+        BeerDTO crank = remote.get(2);
+
+        assertThat(catalog.getBeerById(crank.getId())).isEqualTo(crank).isNotSameAs(crank);
+        assertThat(catalog.getBeerByUpc("103").getBeerName()).isEqualTo("Sunshine City");
+        assertThat(catalog.findByNamePrefix("gal", 10)).extracting(BeerDTO::getBeerName)
+                .containsExactly("Galaxy Cat", "Galaxy Dog");
+        verify(beerClient, never()).getBeerById(any());
+    }
+
+    @Test
+    void testDeltaSyncAppliesOnlyChanges() {
+        assertThat(catalog.sync()).isEqualTo(5);
+        assertThat(catalog.sync()).isZero();
+
+        BeerDTO renamed = remote.get(1).toBuilder().beerName("Mango Bob").version(2).updateDate(LocalDateTime.now()).build();
+        remote.set(1, renamed);
+        remote.add(beer("Arrogant", BeerStyle.STOUT, "105"));
+
+        assertThat(catalog.sync()).isEqualTo(2);
+        assertThat(catalog.getBeerById(renamed.getId()).getBeerName()).isEqualTo("Mango Bob");
+        assertThat(catalog.size()).isEqualTo(6);
+    }
+
+    @Test
+    void testBeerIsRemovedAfterTwoMissedPasses() {
+        catalog.sync();
+        BeerDTO gone = remote.remove(0);
+
+        assertThat(catalog.sync()).isZero();
+        assertThat(catalog.size()).isEqualTo(5);
+
+        assertThat(catalog.sync()).isEqualTo(1);
+        assertThat(catalog.size()).isEqualTo(4);
+        assertThat(catalog.listBeersWithFilters(gone.getBeerName(), null, null, null, null).getContent()).isEmpty();
+    }
+
+    @Test
+    void testLagIsMeasuredFromLastSync() {
+        catalog.sync();
+        now = now.plusSeconds(42);
+
+        assertThat(catalog.getLag()).isEqualTo(Duration.ofSeconds(42));
+        assertThat(meterRegistry.get("beer.client.catalog.lag").gauge().value()).isEqualTo(42.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void servePages() {
+        doAnswer(invocation -> {
+            int pageNumber = invocation.getArgument(3);
+            int pageSize = invocation.getArgument(4);
+            Consumer<BeerDTO> consumer = invocation.getArgument(5);
+
+            remote.stream().skip((long) (pageNumber - 1) * pageSize).limit(pageSize)
+                    .map(BeerCache::copyOf)
+                    .forEach(consumer);
+            return new BeerPageMetadata(pageNumber - 1, pageSize, remote.size());
+        }).when(beerClient).listBeersWithFilters(isNull(), isNull(), eq(true), anyInt(), anyInt(), any(Consumer.class));
+    }
+
+    private static BeerDTO beer(String name, BeerStyle style, String upc) {
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName(name)
+                .beerStyle(style)
+                .upc(upc)
+                .quantityOnHand(10)
+                .updateDate(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+}
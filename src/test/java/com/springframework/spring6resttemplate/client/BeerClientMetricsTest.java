@@ -0,0 +1,48 @@
+package com.springframework.spring6resttemplate.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerClientMetricsTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    BeerClientMetrics metrics = new BeerClientMetrics(meterRegistry);
+
+    @Test
+    void testSuccessIsTagged() {
+        assertThat(metrics.record("get", () -> "beer")).isEqualTo("beer");
+
+        assertThat(timerCount("get", "SUCCESS", "2xx")).isEqualTo(1);
+    }
+
+    @Test
+    void testHttpErrorKeepsStatus() {
+        assertThrows(HttpClientErrorException.class, () -> metrics.record("delete", () -> {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+
+        assertThat(timerCount("delete", "CLIENT_ERROR", "404")).isEqualTo(1);
+    }
+
+    @Test
+    void testIoErrorHasNoStatus() {
+        assertThrows(ResourceAccessException.class, () -> metrics.record("list", () -> {
+            throw new ResourceAccessException("Read timed out");
+        }));
+
+        assertThat(timerCount("list", "UNKNOWN", "IO_ERROR")).isEqualTo(1);
+    }
+
+    private long timerCount(String operation, String outcome, String status) {
+        return meterRegistry.get(BeerClientMetrics.OPERATION_TIMER)
+                .tags("operation", operation, "outcome", outcome, "status", status)
+                .timer()
+                .count();
+    }
+}
@@ -4,9 +4,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.springframework.spring6resttemplate.config.OAuthClientInterceptor;
 import com.springframework.spring6resttemplate.config.RestTemplateBuilderConfig;
+import com.springframework.spring6resttemplate.model.BatchResult;
 import com.springframework.spring6resttemplate.model.BeerDTO;
 import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.model.BeerPageMetadata;
 import com.springframework.spring6resttemplate.model.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -19,7 +22,9 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
@@ -32,13 +37,21 @@ import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -59,6 +72,10 @@ public class BeerClientMockTest {
 
     MockRestServiceServer mockRestServiceServer;
 
+    RestTemplate restTemplate;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Autowired
     ObjectMapper objectMapper;
 
@@ -113,7 +130,7 @@ public class BeerClientMockTest {
         when(auth2AuthorizedClientManager.authorize(any())).thenReturn(new OAuth2AuthorizedClient(clientRegistration,
                 "test", token));
 
-        RestTemplate restTemplate = restTemplateBuilder.build();
+        restTemplate = restTemplateBuilder.build();
 
         //bind the rest template to the server
         mockRestServiceServer = MockRestServiceServer.bindTo(restTemplate).build();
@@ -162,6 +179,35 @@ public class BeerClientMockTest {
         assertThat(resDto.getId()).isEqualTo(beerDto.getId());
     }
 
+    @Test
+    void testCreateBeerRetriedOnlyWithIdempotencyKey() {
+        BeerClient resilientClient = new BeerClientImpl(mockRestTemplateBuilder, Runnable::run, 1, new BeerCache(0, Duration.ZERO),
+                new RequestCoalescer(false), new BatchRunner(Runnable::run, 1, Duration.ofSeconds(5)), new BeerClientMetrics(meterRegistry),
+                new BeerClientResilience(true, 3, Duration.ZERO, Duration.ZERO, 20, 50, Duration.ofSeconds(30), 10,
+                        Duration.ofSeconds(5), meterRegistry, Clock.systemUTC()), RequestHedger.disabled());
+        URI uri = UriComponentsBuilder.fromPath(BeerClientImpl.GET_BEER_BY_ID_URL).build(beerDto.getId());
+
+        mockRestServiceServer.expect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(HttpServerErrorException.class, () -> resilientClient.createBeer(beerDto));
+        mockRestServiceServer.verify();
+        mockRestServiceServer.reset();
+
+        mockRestServiceServer.expect(method(HttpMethod.POST))
+                .andExpect(header(BeerClientImpl.IDEMPOTENCY_KEY_HEADER, "create-1"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        mockRestServiceServer.expect(method(HttpMethod.POST))
+                .andExpect(header(BeerClientImpl.IDEMPOTENCY_KEY_HEADER, "create-1"))
+                .andRespond(withCreatedEntity(uri));
+        mockGetOperation();
+
+        BeerDTO resDto = resilientClient.createBeer(beerDto, "create-1");
+
+        mockRestServiceServer.verify();
+        assertThat(resDto.getId()).isEqualTo(beerDto.getId());
+    }
+
     @Test
     void testUpdateBeer() {
         mockRestServiceServer.expect(method(HttpMethod.PUT))
@@ -220,6 +266,206 @@ public class BeerClientMockTest {
         assertThat(responsePage.getContent().size()).isEqualTo(1);
     }
 
+    @Test
+    void testListBeersStreamingConsumer() throws JsonProcessingException {
+        List<BeerDTO> content = Arrays.asList(getBeerDto(), getBeerDto(), getBeerDto());
+        String payload = objectMapper.writeValueAsString(new BeerDTOPageImpl(content, 2, 3, 9));
+
+        mockRestServiceServer.expect(method(HttpMethod.GET))
+                .andExpect(requestTo(URL + BeerClientImpl.GET_BEER_URL + "?pageNumber=3&pageSize=3"))
+                .andExpect(header("Authorization", BEARER_TEST))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        List<BeerDTO> received = new ArrayList<>();
+        BeerPageMetadata metadata = beerClient
+                .listBeersWithFilters(null, null, null, 3, 3, received::add);
+
+        assertThat(received).extracting(BeerDTO::getId)
+                .containsExactlyElementsOf(content.stream().map(BeerDTO::getId).toList());
+        assertThat(metadata.number()).isEqualTo(2);
+        assertThat(metadata.size()).isEqualTo(3);
+        assertThat(metadata.totalElements()).isEqualTo(9);
+    }
+
+    @Test
+    void testListBeersRawRelaysBodyUntouched() throws IOException {
+        List<BeerDTO> content = Arrays.asList(getBeerDto(), getBeerDto(), getBeerDto());
+        String payload = objectMapper.writeValueAsString(new BeerDTOPageImpl(content, 2, 3, 9));
+
+        mockRestServiceServer.expect(method(HttpMethod.GET))
+                .andExpect(requestTo(URL + BeerClientImpl.GET_BEER_URL + "?pageNumber=3&pageSize=3"))
+                .andExpect(header("Authorization", BEARER_TEST))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        ByteArrayOutputStream relayed = new ByteArrayOutputStream();
+        try (RawBeerPage page = beerClient.listBeersRaw(null, null, null, 3, 3)) {
+            assertThat(page.getMetadata()).isEqualTo(new BeerPageMetadata(2, 3, 9));
+            assertThat(page.getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+            page.transferTo(relayed);
+        }
+
+        assertThat(relayed.toString(StandardCharsets.UTF_8)).isEqualTo(payload);
+    }
+
+    @Test
+    void testListBeersRawMetadataBeyondLookahead() throws IOException {
+        String payload = objectMapper.writeValueAsString(getPage());
+
+        mockRestServiceServer.expect(method(HttpMethod.GET))
+                .andRespond(withSuccess(payload, MediaType.APPLICATION_JSON));
+
+        try (RawBeerPage page = beerClient.listBeersRaw(null, null, null, null, null, 64)) {
+            assertThat(page.getMetadata()).isNull();
+            assertThat(new String(page.getBody().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(payload);
+            assertThat(page.getMetadata()).isEqualTo(new BeerPageMetadata(1, 25, 26));
+        }
+    }
+
+    @Test
+    void testDisabledCacheCountsNoMisses() {
+        BeerCache beerCache = new BeerCache(0, Duration.ZERO);
+        BeerClient uncachedClient = new BeerClientImpl(mockRestTemplateBuilder, Runnable::run, 1, beerCache, new RequestCoalescer(true),
+                new BatchRunner(Runnable::run, 1, Duration.ofSeconds(5)), new BeerClientMetrics(meterRegistry), BeerClientResilience.disabled(), RequestHedger.disabled());
+
+        mockGetOperation();
+        uncachedClient.getBeerById(beerDto.getId());
+
+        mockRestServiceServer.verify();
+        assertThat(beerCache.getMissCount()).isZero();
+    }
+
+    @Test
+    void testGetBeerByIdServedFromCache() {
+        BeerCache beerCache = new BeerCache(100, Duration.ofMinutes(5));
+        BeerClient cachingClient = new BeerClientImpl(mockRestTemplateBuilder, Runnable::run, 1, beerCache, new RequestCoalescer(true),
+                new BatchRunner(Runnable::run, 1, Duration.ofSeconds(5)), new BeerClientMetrics(meterRegistry), BeerClientResilience.disabled(), RequestHedger.disabled());
+
+        mockGetOperation();
+
+        cachingClient.getBeerById(beerDto.getId());
+        BeerDTO resDto = cachingClient.getBeerById(beerDto.getId());
+
+        mockRestServiceServer.verify();
+        assertThat(resDto.getId()).isEqualTo(beerDto.getId());
+        assertThat(beerCache.getHitCount()).isEqualTo(1);
+        assertThat(beerCache.getMissCount()).isEqualTo(1);
+        assertThat(meterRegistry.get(BeerClientMetrics.OPERATION_TIMER)
+                .tags("operation", "get", "outcome", "SUCCESS").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testUpdateBeerReadsBackPastTheCache() {
+        BeerCache beerCache = new BeerCache(100, Duration.ofMinutes(5));
+        BeerClient cachingClient = new BeerClientImpl(mockRestTemplateBuilder, Runnable::run, 1, beerCache, new RequestCoalescer(true),
+                new BatchRunner(Runnable::run, 1, Duration.ofSeconds(5)), new BeerClientMetrics(meterRegistry), BeerClientResilience.disabled(), RequestHedger.disabled());
+
+        mockGetOperation();
+        mockRestServiceServer.expect(method(HttpMethod.PUT))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, beerDto.getId()))
+                .andRespond(withNoContent());
+        mockGetOperation();
+
+        cachingClient.getBeerById(beerDto.getId());
+        cachingClient.updateBeer(beerDto);
+
+        mockRestServiceServer.verify();
+        assertThat(beerCache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetBeerByIdRevalidatesWithEtag() {
+        BeerCache beerCache = new BeerCache(100, Duration.ZERO);
+        BeerClient cachingClient = new BeerClientImpl(mockRestTemplateBuilder, Runnable::run, 1, beerCache, new RequestCoalescer(true),
+                new BatchRunner(Runnable::run, 1, Duration.ofSeconds(5)), new BeerClientMetrics(meterRegistry), BeerClientResilience.disabled(), RequestHedger.disabled());
+
+        mockRestServiceServer.expect(method(HttpMethod.GET))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, beerDto.getId()))
+                .andRespond(withSuccess(dtoJson, MediaType.APPLICATION_JSON).header(HttpHeaders.ETAG, "\"v1\""));
+
+        mockRestServiceServer.expect(method(HttpMethod.GET))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, beerDto.getId()))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        cachingClient.getBeerById(beerDto.getId());
+        BeerDTO resDto = cachingClient.getBeerById(beerDto.getId());
+
+        mockRestServiceServer.verify();
+        assertThat(resDto.getBeerName()).isEqualTo(beerDto.getBeerName());
+        assertThat(beerCache.getRevalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetBeersByIdsKeepsFailures() {
+        BeerDTO missing = getBeerDto();
+        mockRestServiceServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+        mockGetOperation();
+        mockRestServiceServer.expect(method(HttpMethod.GET))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, missing.getId()))
+                .andRespond(withResourceNotFound());
+
+        BatchResult<UUID, BeerDTO> result = beerClient.getBeersByIds(List.of(beerDto.getId(), missing.getId()));
+
+        mockRestServiceServer.verify();
+        assertThat(result.getSuccesses()).containsOnlyKeys(beerDto.getId());
+        assertThat(result.getFailures().get(missing.getId())).isInstanceOf(HttpClientErrorException.NotFound.class);
+        assertThat(result.isComplete()).isFalse();
+    }
+
+    @Test
+    void testCreateBeersDeferredReadBack() throws JsonProcessingException {
+        mockRestServiceServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        BeerDTO second = getBeerDto();
+        second.setBeerName("Beer 2");
+
+        for (BeerDTO beer : List.of(beerDto, second)) {
+            mockRestServiceServer.expect(method(HttpMethod.POST))
+                    .andExpect(requestTo(URL + BeerClientImpl.GET_BEER_URL))
+                    .andExpect(jsonPath("$.beerName").value(beer.getBeerName()))
+                    .andRespond(withCreatedEntity(UriComponentsBuilder.fromPath(BeerClientImpl.GET_BEER_BY_ID_URL)
+                            .build(beer.getId())));
+            mockRestServiceServer.expect(method(HttpMethod.GET))
+                    .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, beer.getId()))
+                    .andRespond(withSuccess(objectMapper.writeValueAsString(beer), MediaType.APPLICATION_JSON));
+        }
+
+        BatchResult<Integer, BeerDTO> result = beerClient.createBeers(List.of(beerDto, second), ReadBack.DEFERRED);
+
+        mockRestServiceServer.verify();
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getSuccesses().get(0).getId()).isEqualTo(beerDto.getId());
+        assertThat(result.getSuccesses().get(1).getId()).isEqualTo(second.getId());
+    }
+
+    @Test
+    void testUpdateBeersRejectsTheSameBeerTwice() {
+        BeerDTO again = beerDto.toBuilder().beerName("Changed").build();
+
+        assertThrows(IllegalArgumentException.class, () -> beerClient.updateBeers(List.of(beerDto, again), ReadBack.NONE));
+        mockRestServiceServer.verify();
+    }
+
+    @Test
+    void testDeleteBeersReportsEachRecord() {
+        BeerDTO missing = getBeerDto();
+        mockRestServiceServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+        mockRestServiceServer.expect(method(HttpMethod.DELETE))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, beerDto.getId()))
+                .andRespond(withNoContent());
+        mockRestServiceServer.expect(method(HttpMethod.DELETE))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, missing.getId()))
+                .andRespond(withResourceNotFound());
+
+        BatchResult<UUID, Void> result = beerClient.deleteBeers(List.of(beerDto.getId(), missing.getId()));
+
+        mockRestServiceServer.verify();
+        assertThat(result.getSuccesses()).containsOnlyKeys(beerDto.getId());
+        assertThat(result.getFailures()).containsOnlyKeys(missing.getId());
+        assertThat(result.getThroughput()).isPositive();
+    }
+
     private void mockGetOperation() {
         mockRestServiceServer.expect(method(HttpMethod.GET))
                 .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_URL, beerDto.getId()))
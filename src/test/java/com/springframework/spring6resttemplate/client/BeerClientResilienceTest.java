@@ -0,0 +1,172 @@
+package com.springframework.spring6resttemplate.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerClientResilienceTest {
+
+    static final String ENDPOINT = "GET /api/v1/beer/{beerId}";
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void testTransientFailureIsRetried() {
+        BeerClientResilience resilience = resilience(3, 1, Duration.ofSeconds(5));
+
+        String result = resilience.execute(ENDPOINT, true, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            }
+            return "beer";
+        });
+
+        assertThat(result).isEqualTo("beer");
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get(BeerClientResilience.RETRIES).counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testNonRetryableAndClientErrorsAreNotRetried() {
+        BeerClientResilience resilience = resilience(3, 1, Duration.ofSeconds(5));
+
+        assertThrows(ResourceAccessException.class, () -> resilience.execute("POST /api/v1/beer", false, () -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("Connection reset");
+        }));
+        assertThrows(HttpClientErrorException.class, () -> resilience.execute(ENDPOINT, true, () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testDeadlineStopsRetries() {
+        BeerClientResilience resilience = new BeerClientResilience(true, 10, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                20, 50, Duration.ofSeconds(30), 10, Duration.ofMillis(50), meterRegistry, Clock.systemUTC());
+
+        //full jitter may draw a short backoff once, but never ten of them inside 50ms
+        assertThrows(HttpServerErrorException.class, () -> resilience.execute(ENDPOINT, true, () -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+
+        assertThat(calls.get()).isLessThan(10);
+    }
+
+    @Test
+    void testRetryAfterPastDeadlineStopsRetries() {
+        BeerClientResilience resilience = resilience(3, 1, Duration.ofSeconds(5));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+
+        assertThrows(HttpClientErrorException.class, () -> resilience.execute(ENDPOINT, true, () -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+        }));
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(BeerClientResilience.retryAfter(headers, Clock.systemUTC())).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testOpenBreakerRejectsWithoutCalling() {
+        BeerClientResilience resilience = resilience(1, 10, Duration.ofSeconds(5));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> resilience.execute(ENDPOINT, true, () -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            }));
+        }
+
+        assertThrows(CallNotPermittedException.class, () -> resilience.execute(ENDPOINT, true, calls::incrementAndGet));
+        assertThat(calls.get()).isEqualTo(4);
+        assertThat(resilience.getBreakerState(ENDPOINT)).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(resilience.getBreakerState("DELETE /api/v1/beer/{beerId}")).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testErrorInHalfOpenTrialFreesTheTrial() {
+        BeerClientResilience resilience = new BeerClientResilience(true, 1, Duration.ofMillis(1), Duration.ofMillis(5),
+                4, 50, Duration.ZERO, 10, Duration.ofSeconds(5), meterRegistry, Clock.systemUTC());
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> resilience.execute(ENDPOINT, true, () -> {
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            }));
+        }
+
+        assertThrows(StackOverflowError.class, () -> resilience.execute(ENDPOINT, true, () -> {
+            throw new StackOverflowError();
+        }));
+        resilience.execute(ENDPOINT, true, calls::incrementAndGet);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(resilience.getBreakerState(ENDPOINT)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testLocalRejectionDoesNotDecideHalfOpenTrial() {
+        BeerClientResilience resilience = new BeerClientResilience(true, 1, Duration.ofMillis(1), Duration.ofMillis(5),
+                4, 50, Duration.ZERO, 10, Duration.ofSeconds(5), meterRegistry, Clock.systemUTC());
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> resilience.execute(ENDPOINT, true, () -> {
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            }));
+        }
+
+        assertThrows(CallNotPermittedException.class, () -> resilience.execute(ENDPOINT, true, () -> {
+            throw new CallNotPermittedException("Beer service read limit reached (concurrency)");
+        }));
+        assertThat(resilience.getBreakerState(ENDPOINT)).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        resilience.execute(ENDPOINT, true, calls::incrementAndGet);
+        assertThat(resilience.getBreakerState(ENDPOINT)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testFullBulkheadFailsFast() throws Exception {
+        BeerClientResilience resilience = resilience(1, 1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> resilience.execute(ENDPOINT, true, () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        holder.start();
+        started.await(5, TimeUnit.SECONDS);
+
+        assertThrows(CallNotPermittedException.class, () -> resilience.execute(ENDPOINT, true, calls::incrementAndGet));
+
+        release.countDown();
+        holder.join();
+        assertThat(calls.get()).isZero();
+        assertThat(resilience.availableBulkheadPermits()).isEqualTo(1);
+    }
+
+    private BeerClientResilience resilience(int maxAttempts, int bulkhead, Duration deadline) {
+        return new BeerClientResilience(true, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5),
+                4, 50, Duration.ofSeconds(30), bulkhead, deadline, meterRegistry, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,101 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerPageIteratorTest {
+
+    static final int PAGE_SIZE = 10;
+
+    ExecutorService executor;
+    Set<Integer> requestedPages;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        requestedPages = ConcurrentHashMap.newKeySet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testWalksEveryPage() {
+        BeerPageIterator iterator = new BeerPageIterator(catalog(45), executor, 2);
+
+        List<BeerDTO> beers = new ArrayList<>();
+        iterator.forEachRemaining(beers::add);
+
+        assertThat(beers).hasSize(45);
+        assertThat(requestedPages).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void testEarlyStopOnlyFetchesPrefetchedPages() {
+        BeerPageIterator iterator = new BeerPageIterator(catalog(1000), executor, 2);
+
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            iterator.next();
+        }
+        iterator.close();
+
+        assertThat(iterator.hasNext()).isFalse();
+        //prefetches cancelled before they started never reach the fetcher
+        assertThat(requestedPages).contains(1).isSubsetOf(1, 2, 3);
+    }
+
+    @Test
+    void testEmptyCatalog() {
+        BeerPageIterator iterator = new BeerPageIterator(catalog(0), executor, 2);
+
+        assertThat(iterator.hasNext()).isFalse();
+        assertThat(requestedPages).containsExactly(1);
+    }
+
+    @Test
+    void testPageFailureIsRethrown() {
+        BeerPageIterator iterator = new BeerPageIterator(pageNumber -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }, executor, 2);
+
+        assertThrows(HttpServerErrorException.class, iterator::hasNext);
+    }
+
+    private IntFunction<Page<BeerDTO>> catalog(int totalBeers) {
+        return pageNumber -> {
+            requestedPages.add(pageNumber);
+
+            int from = (pageNumber - 1) * PAGE_SIZE;
+            int to = Math.min(totalBeers, from + PAGE_SIZE);
+
+            List<BeerDTO> content = from >= to ? Collections.emptyList() : new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                content.add(BeerDTO.builder().id(UUID.randomUUID()).beerName("Beer " + i).build());
+            }
+
+            return new BeerDTOPageImpl(content, PageRequest.of(pageNumber - 1, PAGE_SIZE), totalBeers);
+        };
+    }
+}
@@ -0,0 +1,197 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.springframework.spring6resttemplate.model.BatchResult;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BeerWriteBehindTest {
+
+    BeerClient beerClient;
+    SimpleMeterRegistry meterRegistry;
+    List<List<BeerDTO>> batches;
+    CountDownLatch release;
+    CountDownLatch releaseSlow;
+    BeerWriteBehind writeBehind;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        beerClient = mock(BeerClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        batches = new CopyOnWriteArrayList<>();
+        release = new CountDownLatch(0);
+        releaseSlow = new CountDownLatch(1);
+
+        when(beerClient.updateBeers(any(Collection.class), eq(ReadBack.NONE), anyInt(), any(Duration.class))).thenAnswer(invocation -> {
+            List<BeerDTO> beers = new ArrayList<>(invocation.getArgument(0, Collection.class));
+            batches.add(beers);
+            release.await(5, TimeUnit.SECONDS);
+            if (beers.stream().anyMatch(beer -> beer.getBeerName().startsWith("slow"))) {
+                releaseSlow.await(5, TimeUnit.SECONDS);
+            }
+
+            Map<UUID, BeerDTO> successes = new LinkedHashMap<>();
+            Map<UUID, Exception> failures = new LinkedHashMap<>();
+            for (BeerDTO beer : beers) {
+                if (beer.getBeerName().equals("fails")) {
+                    failures.put(beer.getId(), new IllegalStateException("400 Bad Request"));
+                } else {
+                    successes.put(beer.getId(), beer);
+                }
+            }
+            return new BatchResult<>(successes, failures, Duration.ofMillis(1));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        releaseSlow.countDown();
+        writeBehind.stop();
+    }
+
+    @Test
+    void testUpdatesWithinTheWindowAreMergedByVersion() throws Exception {
+        writeBehind = writeBehind(Duration.ofMillis(50), 100, Duration.ofSeconds(1));
+        UUID id = UUID.randomUUID();
+
+        CompletableFuture<BeerDTO> first = writeBehind.updateBeer(beer(id, "v1", 1));
+        CompletableFuture<BeerDTO> newest = writeBehind.updateBeer(beer(id, "v3", 3));
+        CompletableFuture<BeerDTO> stale = writeBehind.updateBeer(beer(id, "v2", 2));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getBeerName()).isEqualTo("v3");
+        assertThat(newest.get().getBeerName()).isEqualTo("v3");
+        assertThat(stale.get().getBeerName()).isEqualTo("v3");
+        assertThat(first.get()).isNotSameAs(newest.get());
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(BeerDTO::getVersion).containsExactly(3);
+        assertThat(meterRegistry.get("beer.client.writebehind.updates").tag("result", "coalesced").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testFailedWriteFailsTheFutureOfThatBeerOnly() throws Exception {
+        writeBehind = writeBehind(Duration.ofMillis(20), 100, Duration.ofSeconds(1));
+
+        CompletableFuture<BeerDTO> failing = writeBehind.updateBeer(beer(UUID.randomUUID(), "fails", 1));
+        CompletableFuture<BeerDTO> written = writeBehind.updateBeer(beer(UUID.randomUUID(), "ok", 1));
+
+        assertThat(written.get(5, TimeUnit.SECONDS).getBeerName()).isEqualTo("ok");
+        assertThatThrownBy(failing::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testFullBufferFlushesEarlyAndThenRejects() throws Exception {
+        writeBehind = writeBehind(Duration.ofSeconds(30), 2, 2, Duration.ofMillis(100));
+        release = new CountDownLatch(1);
+
+        writeBehind.updateBeer(beer(UUID.randomUUID(), "a", 1));
+        writeBehind.updateBeer(beer(UUID.randomUUID(), "b", 1));
+        //full, the flusher takes a and b without waiting out the window and blocks writing them, which uses every slot
+        CompletableFuture<BeerDTO> c = writeBehind.updateBeer(beer(UUID.randomUUID(), "c", 1));
+        writeBehind.updateBeer(beer(UUID.randomUUID(), "d", 1));
+
+        assertThatThrownBy(() -> writeBehind.updateBeer(beer(UUID.randomUUID(), "e", 1)))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(BeerDTO::getBeerName).containsExactly("a", "b");
+
+        release.countDown();
+        writeBehind.flush().get(5, TimeUnit.SECONDS);
+        assertThat(c.get(5, TimeUnit.SECONDS).getBeerName()).isEqualTo("c");
+    }
+
+    @Test
+    void testStopWritesWhatIsBuffered() throws Exception {
+        writeBehind = writeBehind(Duration.ofSeconds(30), 100, Duration.ofSeconds(1));
+
+        CompletableFuture<BeerDTO> pending = writeBehind.updateBeer(beer(UUID.randomUUID(), "a", 1));
+        writeBehind.stop();
+
+        assertThat(pending).isCompleted();
+        assertThat(pending.get().getBeerName()).isEqualTo("a");
+        assertThatThrownBy(() -> writeBehind.updateBeer(beer(UUID.randomUUID(), "b", 1)))
+                .isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    void testSlowWriteDoesNotHoldBackLaterBeers() throws Exception {
+        writeBehind = writeBehind(Duration.ofMillis(20), 100, Duration.ofSeconds(1));
+
+        CompletableFuture<BeerDTO> slow = writeBehind.updateBeer(beer(UUID.randomUUID(), "slow", 1));
+        awaitBatches(1);
+        CompletableFuture<BeerDTO> fast = writeBehind.updateBeer(beer(UUID.randomUUID(), "fast", 1));
+
+        assertThat(fast.get(5, TimeUnit.SECONDS).getBeerName()).isEqualTo("fast");
+        assertThat(slow).isNotDone();
+
+        releaseSlow.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS).getBeerName()).isEqualTo("slow");
+    }
+
+    @Test
+    void testBeerIsNotWrittenAgainWhileItsWriteIsInFlight() throws Exception {
+        writeBehind = writeBehind(Duration.ofMillis(20), 100, Duration.ofSeconds(1));
+        UUID id = UUID.randomUUID();
+
+        CompletableFuture<BeerDTO> first = writeBehind.updateBeer(beer(id, "slow", 1));
+        awaitBatches(1);
+        CompletableFuture<BeerDTO> second = writeBehind.updateBeer(beer(id, "v2", 2));
+
+        Thread.sleep(200);
+        assertThat(batches).hasSize(1);
+        assertThat(second).isNotDone();
+
+        releaseSlow.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1);
+        assertThat(second.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(2);
+        assertThat(batches).hasSize(2);
+    }
+
+    void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (batches.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(batches).hasSize(count);
+    }
+
+    BeerWriteBehind writeBehind(Duration window, int maxPending, Duration maxWait) {
+        return writeBehind(window, maxPending, 4, maxWait);
+    }
+
+    BeerWriteBehind writeBehind(Duration window, int maxPending, int maxConcurrency, Duration maxWait) {
+        BeerWriteBehind started = new BeerWriteBehind(beerClient, window, maxPending, maxConcurrency, maxWait,
+                Duration.ofSeconds(5), ReadBack.NONE, meterRegistry);
+        started.start();
+        return started;
+    }
+
+    static BeerDTO beer(UUID id, String name, int version) {
+        return BeerDTO.builder().id(id).beerName(name).version(version).build();
+    }
+}
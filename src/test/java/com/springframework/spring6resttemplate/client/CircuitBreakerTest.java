@@ -0,0 +1,81 @@
+package com.springframework.spring6resttemplate.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CircuitBreakerTest {
+
+    Clock clock;
+    Instant now;
+    List<CircuitBreaker.State> transitions;
+    CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2024-01-01T00:00:00Z");
+        clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+
+        transitions = new ArrayList<>();
+        breaker = new CircuitBreaker(4, 50, Duration.ofSeconds(30), clock, transitions::add);
+    }
+
+    @Test
+    void testOpensWhenFailureRateReached() {
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void testHalfOpenLetsOneTrialThrough() {
+        openBreaker();
+        now = now.plusSeconds(31);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN,
+                CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testFailedTrialReopens() {
+        openBreaker();
+        now = now.plusSeconds(31);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
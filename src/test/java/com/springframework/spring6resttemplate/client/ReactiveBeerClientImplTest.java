@@ -0,0 +1,197 @@
+package com.springframework.spring6resttemplate.client;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveBeerClientImplTest {
+
+    static final String URL = "http://localhost:8080";
+
+    //same modules Boot registers, BeerDTO is bound through its builder generated constructor
+    ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new ParameterNamesModule(JsonCreator.Mode.DEFAULT));
+
+    //the stubbed responses decode with these strategies, not the ones of the WebClient
+    ExchangeStrategies strategies = ExchangeStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+            })
+            .build();
+
+    List<ClientRequest> requests;
+    ReactiveBeerClient reactiveBeerClient;
+    BeerDTO beerDto;
+
+    @BeforeEach
+    void setUp() {
+        requests = new ArrayList<>();
+        beerDto = getBeerDto();
+    }
+
+    @Test
+    void testListBeersStreamsContent() throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(
+                new BeerDTOPageImpl(Arrays.asList(getBeerDto(), getBeerDto(), getBeerDto()), 1, 25, 3));
+        respondWith(request -> json(HttpStatus.OK, payload));
+
+        StepVerifier.create(reactiveBeerClient.listBeersWithFilters("ALE", null, null, null, null), 1)
+                .expectNextCount(1)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertThat(requests.get(0).url().toString()).isEqualTo(URL + BeerClientImpl.GET_BEER_URL + "?beerName=ALE");
+    }
+
+    @Test
+    void testListBeersDecodesBeersSplitAcrossChunks() throws JsonProcessingException {
+        List<BeerDTO> content = Arrays.asList(getBeerDto(), getBeerDto(), getBeerDto());
+        byte[] payload = objectMapper.writeValueAsBytes(new BeerDTOPageImpl(content, 1, 25, 3));
+
+        //7 byte chunks cut through field names, numbers and the paging fields
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < payload.length; offset += 7) {
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(payload, offset, Math.min(payload.length, offset + 7))));
+        }
+        respondWith(request -> ClientResponse.create(HttpStatus.OK, strategies)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(Flux.fromIterable(chunks))
+                .build());
+
+        StepVerifier.create(reactiveBeerClient.listBeers())
+                .assertNext(beer -> assertThat(beer).isEqualTo(content.get(0)))
+                .assertNext(beer -> assertThat(beer).isEqualTo(content.get(1)))
+                .assertNext(beer -> assertThat(beer.getPrice()).isEqualTo(new BigDecimal("12.23")))
+                .verifyComplete();
+    }
+
+    @Test
+    void testListBeersFailsOnATruncatedPage() throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(new BeerDTOPageImpl(Arrays.asList(getBeerDto(), getBeerDto()), 1, 25, 2));
+        respondWith(request -> json(HttpStatus.OK, payload.substring(0, payload.length() / 2)));
+
+        StepVerifier.create(reactiveBeerClient.listBeers())
+                .expectNextCount(1)
+                .expectError(DecodingException.class)
+                .verify();
+    }
+
+    @Test
+    void testGetBeerById() throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(beerDto);
+        respondWith(request -> json(HttpStatus.OK, payload));
+
+        StepVerifier.create(reactiveBeerClient.getBeerById(beerDto.getId()))
+                .assertNext(beer -> assertThat(beer.getId()).isEqualTo(beerDto.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testCreateBeerFollowsLocation() throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(beerDto);
+        respondWith(request -> {
+            if (request.method() == HttpMethod.POST) {
+                return ClientResponse.create(HttpStatus.CREATED, strategies)
+                        .header(HttpHeaders.LOCATION, UriComponentsBuilder.fromPath(BeerClientImpl.GET_BEER_BY_ID_URL)
+                                .build(beerDto.getId()).toString())
+                        .build();
+            }
+            return json(HttpStatus.OK, payload);
+        });
+
+        StepVerifier.create(reactiveBeerClient.createBeer(beerDto))
+                .assertNext(beer -> assertThat(beer.getId()).isEqualTo(beerDto.getId()))
+                .verifyComplete();
+
+        assertThat(requests).extracting(ClientRequest::method).containsExactly(HttpMethod.POST, HttpMethod.GET);
+    }
+
+    @Test
+    void testCreateBeerWithoutLocation() {
+        respondWith(request -> ClientResponse.create(HttpStatus.CREATED, strategies).build());
+
+        StepVerifier.create(reactiveBeerClient.createBeer(beerDto))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(IllegalStateException.class).hasMessageContaining("Location"))
+                .verify();
+
+        assertThat(requests).extracting(ClientRequest::method).containsExactly(HttpMethod.POST);
+    }
+
+    @Test
+    void testDeleteNotFound() {
+        respondWith(request -> ClientResponse.create(HttpStatus.NOT_FOUND, strategies).build());
+
+        StepVerifier.create(reactiveBeerClient.deleteBeer(beerDto.getId()))
+                .expectError(WebClientResponseException.NotFound.class)
+                .verify();
+    }
+
+    private void respondWith(Function<ClientRequest, ClientResponse> responder) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl(URL)
+                .exchangeStrategies(strategies)
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(responder.apply(request));
+                })
+                .build();
+
+        reactiveBeerClient = new ReactiveBeerClientImpl(webClient, objectMapper);
+    }
+
+    private ClientResponse json(HttpStatus status, String body) {
+        return ClientResponse.create(status, strategies)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+
+    BeerDTO getBeerDto(){
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .beerName("Beer 1")
+                .beerStyle(BeerStyle.LAGER)
+                .price(new BigDecimal("12.23"))
+                .quantityOnHand(234)
+                .upc("1234567")
+                .build();
+    }
+}
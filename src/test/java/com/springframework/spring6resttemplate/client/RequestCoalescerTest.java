@@ -0,0 +1,132 @@
+package com.springframework.spring6resttemplate.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+
+    static final int CALLERS = 8;
+
+    ExecutorService executor;
+    RequestCoalescer requestCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(CALLERS);
+        requestCoalescer = new RequestCoalescer(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneRequest() throws Exception {
+        AtomicInteger networkCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitCallers(() -> {
+            networkCalls.incrementAndGet();
+            await(release);
+            return "beer";
+        });
+
+        waitForFollowers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("beer");
+        }
+        assertThat(networkCalls.get()).isEqualTo(1);
+        assertThat(requestCoalescer.getExecutedCount()).isEqualTo(1);
+        assertThat(requestCoalescer.getCoalescedCount()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void testFailureIsSharedWithWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitCallers(() -> {
+            await(release);
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        });
+
+        waitForFollowers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(exception.getCause()).isInstanceOf(HttpClientErrorException.class);
+        }
+    }
+
+    @Test
+    void testLeaderChangingItsResultDoesNotLeakToWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> requestCoalescer.execute("GET /api/v1/beer/1", () -> {
+                await(release);
+                return new StringBuilder("beer");
+            }, StringBuilder::new).append('!').toString()));
+        }
+
+        waitForFollowers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("beer!");
+        }
+    }
+
+    @Test
+    void testSequentialCallsAreNotMerged() {
+        requestCoalescer.execute("GET /api/v1/beer", () -> "first", value -> value);
+        requestCoalescer.execute("GET /api/v1/beer", () -> "second", value -> value);
+
+        assertThat(requestCoalescer.getExecutedCount()).isEqualTo(2);
+        assertThat(requestCoalescer.getCoalescedCount()).isZero();
+    }
+
+    private List<Future<String>> submitCallers(Supplier<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> requestCoalescer.execute("GET /api/v1/beer/1", call, value -> value)));
+        }
+        return results;
+    }
+
+    private void waitForFollowers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requestCoalescer.getCoalescedCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
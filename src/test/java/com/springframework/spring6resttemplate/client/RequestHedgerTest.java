@@ -0,0 +1,180 @@
+package com.springframework.spring6resttemplate.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestHedgerTest {
+
+    static final String ALTERNATE_URL = "http://beer-2:8080";
+
+    ExecutorService executor;
+    SimpleMeterRegistry meterRegistry;
+    List<String> baseUrls;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+        baseUrls = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFastReadIsNotHedged() {
+        RequestHedger hedger = hedger(5);
+
+        String result = hedger.execute(baseUrl -> {
+            baseUrls.add(baseUrl);
+            return "beer";
+        });
+
+        assertThat(result).isEqualTo("beer");
+        assertThat(baseUrls).containsExactly("");
+    }
+
+    @Test
+    void testSlowPrimaryLosesToHedge() throws Exception {
+        RequestHedger hedger = hedger(5);
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        String result = hedger.execute(baseUrl -> {
+            baseUrls.add(baseUrl);
+            if (baseUrl.isEmpty()) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.countDown();
+                }
+                return "slow";
+            }
+            return "hedged";
+        });
+
+        assertThat(result).isEqualTo("hedged");
+        assertThat(baseUrls).containsExactly("", ALTERNATE_URL);
+        assertThat(primaryInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(hedgeCount("sent")).isEqualTo(1);
+        assertThat(hedgeCount("won")).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedHedgeWaitsForPrimary() {
+        RequestHedger hedger = hedger(5);
+
+        String result = hedger.execute(baseUrl -> {
+            if (baseUrl.isEmpty()) {
+                sleep(100);
+                return "primary";
+            }
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(hedgeCount("lost")).isEqualTo(1);
+    }
+
+    @Test
+    void testBothFailingRethrows() {
+        RequestHedger hedger = hedger(5);
+
+        assertThrows(HttpServerErrorException.class, () -> hedger.execute(baseUrl -> {
+            sleep(50);
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+    }
+
+    @Test
+    void testBudgetCapsHedges() {
+        RequestHedger hedger = hedger(0);
+
+        for (int i = 0; i < RequestHedger.MAX_CREDITS / RequestHedger.CREDITS_PER_HEDGE + 1; i++) {
+            hedger.execute(baseUrl -> {
+                if (baseUrl.isEmpty()) {
+                    sleep(30);
+                }
+                return "beer";
+            });
+        }
+
+        assertThat(hedgeCount("sent")).isEqualTo(10);
+        assertThat(hedgeCount("budget_exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void testFullExecutorRunsTheReadOnTheCaller() throws Exception {
+        executor.shutdownNow();
+        executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new SynchronousQueue<>());
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> await(busy));
+
+        Thread caller = Thread.currentThread();
+        String result = hedger(5).execute(baseUrl -> {
+            baseUrls.add(baseUrl);
+            return Thread.currentThread() == caller ? "inline" : "pooled";
+        });
+        busy.countDown();
+
+        assertThat(result).isEqualTo("inline");
+        assertThat(baseUrls).containsExactly("");
+        assertThat(hedgeCount("executor_full")).isEqualTo(1);
+    }
+
+    @Test
+    void testWaitIsBoundedByMaxWait() {
+        RequestHedger hedger = new RequestHedger(true, 0.95, Duration.ofMillis(5), 0, new String[0],
+                Duration.ofMillis(100), executor, meterRegistry);
+        CountDownLatch never = new CountDownLatch(1);
+
+        assertThrows(ResourceAccessException.class, () -> hedger.execute(baseUrl -> {
+            await(never);
+            return "late";
+        }));
+    }
+
+    private RequestHedger hedger(double budgetPercent) {
+        return new RequestHedger(true, 0.95, Duration.ofMillis(5), budgetPercent, new String[]{ALTERNATE_URL},
+                Duration.ofSeconds(10), executor, meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double hedgeCount(String result) {
+        return meterRegistry.get(RequestHedger.HEDGES).tag("result", result).counter().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.springframework.spring6resttemplate.client.BeerClientResilience;
+import com.springframework.spring6resttemplate.client.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.twice;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class AdaptiveLimitInterceptorTest {
+
+    static final String BEER_URL = "http://localhost:8080/api/v1/beer";
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    Clock clock;
+    Instant now;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2024-01-01T00:00:00Z");
+        clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+    }
+
+    @Test
+    void testRetryAfterPausesEveryCall() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.9, 2.0);
+        RestTemplate restTemplate = restTemplate(limit, Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        server.expect(once(), requestTo(BEER_URL))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "5"));
+        server.expect(once(), requestTo(BEER_URL)).andRespond(withSuccess());
+
+        assertThrows(HttpClientErrorException.class, () -> restTemplate.getForObject(BEER_URL, String.class));
+        assertThrows(CallNotPermittedException.class, () -> restTemplate.getForObject(BEER_URL, String.class));
+
+        now = now.plusSeconds(5);
+        restTemplate.getForObject(BEER_URL, String.class);
+
+        server.verify();
+        assertThat(meterRegistry.get(BeerClientResilience.REJECTIONS).tag("reason", "retry_after").counter().count())
+                .isEqualTo(1);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void testRateCapIsPerOperation() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.9, 2.0);
+        RestTemplate restTemplate = restTemplate(limit, Map.of(AdaptiveLimitInterceptor.READ, new TokenBucket(1, 1, clock)));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        server.expect(once(), method(HttpMethod.GET)).andRespond(withSuccess());
+        server.expect(twice(), method(HttpMethod.DELETE)).andRespond(withSuccess());
+
+        restTemplate.getForObject(BEER_URL, String.class);
+        assertThrows(CallNotPermittedException.class, () -> restTemplate.getForObject(BEER_URL, String.class));
+        restTemplate.delete(BEER_URL);
+        restTemplate.delete(BEER_URL);
+
+        server.verify();
+        assertThat(meterRegistry.get(BeerClientResilience.REJECTIONS).tags("endpoint", "read", "reason", "rate")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFullLimitRejectsWithoutWaiting() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 64, 0.9, 2.0);
+        RestTemplate restTemplate = restTemplate(limit, Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        assertThat(limit.acquire(System.nanoTime())).isTrue();
+        assertThrows(CallNotPermittedException.class, () -> restTemplate.getForObject(BEER_URL, String.class));
+        limit.release();
+
+        server.verify();
+        assertThat(meterRegistry.get(BeerClientResilience.REJECTIONS).tag("reason", "concurrency").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testSlotIsHeldUntilTheBodyIsClosed() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.9, 2.0);
+        RestTemplate restTemplate = restTemplate(limit, Map.of());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(once(), requestTo(BEER_URL)).andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        Integer inFlightWhileReading = restTemplate.execute(BEER_URL, HttpMethod.GET, null, response -> {
+            response.getBody().readAllBytes();
+            return limit.getInFlight();
+        });
+
+        server.verify();
+        assertThat(inFlightWhileReading).isEqualTo(1);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void testLimitGrowsWhenUsedAndShrinksOnDrops() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 64, 0.5, 2.0);
+        long rtt = Duration.ofMillis(1).toNanos();
+
+        //a limit nobody uses does not grow
+        limit.onSample(rtt);
+        assertThat(limit.getLimit()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.acquire(System.nanoTime())).isTrue();
+        }
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(rtt);
+        }
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        //a drop halves the limit once per round trip, however many calls fail together
+        Thread.sleep(5);
+        limit.onDrop();
+        limit.onDrop();
+        assertThat(limit.getLimit()).isEqualTo(2);
+
+        //latency well above the lowest seen is treated like a drop
+        Thread.sleep(5);
+        limit.onSample(rtt * 10);
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    private RestTemplate restTemplate(AdaptiveConcurrencyLimit limit, Map<String, TokenBucket> rateLimits) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new AdaptiveLimitInterceptor(limit, rateLimits, Duration.ZERO, clock,
+                meterRegistry)));
+        return restTemplate;
+    }
+}
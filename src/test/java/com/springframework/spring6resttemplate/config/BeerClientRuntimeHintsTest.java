@@ -0,0 +1,27 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerClientRuntimeHintsTest {
+
+    @Test
+    void testBeerTypesAreKeptForJackson() {
+        RuntimeHints hints = new RuntimeHints();
+        new BeerClientRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        for (Class<?> type : new Class<?>[]{BeerDTO.class, BeerDTOPageImpl.class, BeerStyle.class}) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS))
+                    .accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.serialization().onType(BeerDTOPageImpl.class)).accepts(hints);
+    }
+}
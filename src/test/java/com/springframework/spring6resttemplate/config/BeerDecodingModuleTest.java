@@ -0,0 +1,92 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerDecodingModuleTest {
+
+    ObjectMapper defaultMapper = mapper();
+
+    BeerDTO beer = BeerDTO.builder()
+            .id(UUID.randomUUID())
+            .version(1)
+            .beerName("Galaxy Cat")
+            .beerStyle(BeerStyle.PALE_ALE)
+            .upc("12356")
+            .quantityOnHand(122)
+            .price(new BigDecimal("12.99"))
+            .createdDate(LocalDateTime.of(2024, 1, 1, 12, 0))
+            .updateDate(LocalDateTime.of(2024, 1, 2, 12, 0))
+            .build();
+
+    @Test
+    void testDecodesLikeTheDefaultMapper() throws Exception {
+        ObjectMapper optimized = mapper().registerModule(new BlackbirdModule()).registerModule(new BeerDecodingModule(Set.of()));
+        String json = defaultMapper.writeValueAsString(beer);
+
+        assertThat(optimized.readValue(json, BeerDTO.class)).isEqualTo(defaultMapper.readValue(json, BeerDTO.class));
+        String upperCaseId = json.replace(beer.getId().toString(), beer.getId().toString().toUpperCase());
+        assertThat(optimized.readValue(upperCaseId, BeerDTO.class).getId()).isEqualTo(beer.getId());
+    }
+
+    @Test
+    void testBinaryIdsFallBackToJackson() throws Exception {
+        ObjectMapper smile = mapper().registerModule(new BeerDecodingModule(Set.of())).copyWith(new SmileFactory());
+
+        assertThat(smile.readValue(smile.writeValueAsBytes(beer), BeerDTO.class)).isEqualTo(beer);
+    }
+
+    @Test
+    void testUnknownStyleFailsAsBefore() {
+        ObjectMapper optimized = mapper().registerModule(new BeerDecodingModule(Set.of()));
+        String json = "{\"beerName\":\"Galaxy Cat\",\"beerStyle\":\"BARLEY_WINE\"}";
+
+        assertThrows(InvalidFormatException.class, () -> optimized.readValue(json, BeerDTO.class));
+    }
+
+    @Test
+    void testStyleIndexesGoThroughTheFallback() throws Exception {
+        ObjectMapper optimized = mapper().registerModule(new BeerDecodingModule(Set.of()));
+
+        for (BeerStyle style : BeerStyle.values()) {
+            String json = "{\"beerName\":\"Galaxy Cat\",\"beerStyle\":" + style.ordinal() + "}";
+            assertThat(optimized.readValue(json, BeerDTO.class).getBeerStyle()).isEqualTo(style);
+        }
+    }
+
+    @Test
+    void testSkippedFieldsAreReadAsNullButStillWritten() throws Exception {
+        ObjectMapper optimized = mapper().registerModule(new BeerDecodingModule(Set.of("createdDate", "updateDate")));
+        String json = optimized.writeValueAsString(beer);
+
+        BeerDTO decoded = optimized.readValue(json, BeerDTO.class);
+
+        assertThat(json).contains("createdDate", "updateDate");
+        assertThat(decoded.getCreatedDate()).isNull();
+        assertThat(decoded.getUpdateDate()).isNull();
+        assertThat(decoded.toBuilder().createdDate(beer.getCreatedDate()).updateDate(beer.getUpdateDate()).build())
+                .isEqualTo(beer);
+    }
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new ParameterNamesModule(JsonCreator.Mode.DEFAULT));
+    }
+}
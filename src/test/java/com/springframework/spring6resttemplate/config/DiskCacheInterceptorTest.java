@@ -0,0 +1,123 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class DiskCacheInterceptorTest {
+
+    static final String BEER_URL = "http://localhost:8080/api/v1/beer/1";
+
+    @TempDir
+    Path directory;
+
+    Clock clock;
+    Instant now;
+    DiskResponseCache cache;
+    RestTemplate restTemplate;
+    MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2024-01-01T00:00:00Z");
+        clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        openCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    void testWarmStartServesWithoutNetwork() {
+        server.expect(once(), requestTo(BEER_URL))
+                .andRespond(withSuccess("{\"beerName\":\"Galaxy Cat\"}", MediaType.APPLICATION_JSON));
+        restTemplate.getForObject(BEER_URL, String.class);
+        server.verify();
+
+        cache.close();
+        openCache();
+
+        assertThat(restTemplate.getForObject(BEER_URL, String.class)).isEqualTo("{\"beerName\":\"Galaxy Cat\"}");
+        server.verify();
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testStaleEntryIsRevalidatedWithEtag() {
+        server.expect(requestTo(BEER_URL))
+                .andRespond(withSuccess("{\"beerName\":\"Galaxy Cat\"}", MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ETAG, "\"v1\"")
+                        .header(HttpHeaders.CACHE_CONTROL, "max-age=10"));
+        server.expect(requestTo(BEER_URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        restTemplate.getForObject(BEER_URL, String.class);
+        now = now.plusSeconds(11);
+
+        assertThat(restTemplate.getForObject(BEER_URL, String.class)).isEqualTo("{\"beerName\":\"Galaxy Cat\"}");
+        server.verify();
+        assertThat(cache.getRevalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testNoStoreIsNotCached() {
+        server.expect(requestTo(BEER_URL))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON).header(HttpHeaders.CACHE_CONTROL, "no-store"));
+        server.expect(requestTo(BEER_URL))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        restTemplate.getForObject(BEER_URL, String.class);
+        restTemplate.getForObject(BEER_URL, String.class);
+
+        server.verify();
+    }
+
+    @Test
+    void testWriteInvalidatesCachedCopy() {
+        server.expect(method(HttpMethod.GET)).andRespond(withSuccess("{\"version\":1}", MediaType.APPLICATION_JSON));
+        server.expect(method(HttpMethod.PUT)).andRespond(withStatus(HttpStatus.NO_CONTENT));
+        server.expect(method(HttpMethod.GET)).andRespond(withSuccess("{\"version\":2}", MediaType.APPLICATION_JSON));
+
+        restTemplate.getForObject(BEER_URL, String.class);
+        restTemplate.put(BEER_URL, "{}");
+
+        assertThat(restTemplate.getForObject(BEER_URL, String.class)).isEqualTo("{\"version\":2}");
+        server.verify();
+    }
+
+    private void openCache() {
+        cache = new DiskResponseCache(directory, 64 * 1024);
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new DiskCacheInterceptor(cache, "springauth:message.read", Duration.ofMinutes(5), clock)));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiskResponseCacheTest {
+
+    static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEntriesSurviveReopen() {
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            cache.put("page-1", entry("first"));
+            cache.put("page-1", entry("second"));
+            cache.put("page-2", entry("other"));
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            assertThat(cache.size()).isEqualTo(2);
+            assertThat(body(cache.get("page-1"))).isEqualTo("second");
+            assertThat(cache.get("page-1").etag()).isEqualTo("\"v1\"");
+            assertThat(cache.get("page-1").contentType()).isEqualTo("application/json");
+        }
+    }
+
+    @Test
+    void testTornRecordIsDroppedOnOpen() throws IOException {
+        int secondRecord;
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            cache.put("page-1", entry("first"));
+            secondRecord = cache.getSegmentBytes();
+            cache.put("page-2", entry("second"));
+        }
+
+        //a flipped byte in the payload stands in for a page that never reached the disk
+        try (RandomAccessFile segment = new RandomAccessFile(directory.resolve(DiskResponseCache.SEGMENT_FILE).toFile(), "rw")) {
+            segment.seek(secondRecord + 20);
+            segment.write(segment.read() ^ 0xFF);
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            assertThat(body(cache.get("page-1"))).isEqualTo("first");
+            assertThat(cache.get("page-2")).isNull();
+            cache.put("page-3", entry("third"));
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            assertThat(cache.size()).isEqualTo(2);
+            assertThat(body(cache.get("page-3"))).isEqualTo("third");
+        }
+    }
+
+    @Test
+    void testCompactionKeepsRecentEntriesWithinCapacity() {
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 4096)) {
+            for (int i = 0; i < 100; i++) {
+                cache.put("page-" + i, entry("beer page " + i));
+            }
+
+            assertThat(cache.getCompactionCount()).isPositive();
+            assertThat(cache.getSegmentBytes()).isLessThanOrEqualTo(4096);
+            assertThat(body(cache.get("page-99"))).isEqualTo("beer page 99");
+            assertThat(cache.get("page-0")).isNull();
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 4096)) {
+            assertThat(body(cache.get("page-99"))).isEqualTo("beer page 99");
+        }
+    }
+
+    @Test
+    void testDirectoryIsHeldByOneCacheAtATime() {
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            cache.put("page-1", entry("first"));
+
+            assertThatThrownBy(() -> new DiskResponseCache(directory, 64 * 1024)).isInstanceOf(IllegalStateException.class);
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            assertThat(body(cache.get("page-1"))).isEqualTo("first");
+        }
+    }
+
+    @Test
+    void testKeysTooLongForTheRecordAreNotStored() {
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024)) {
+            String longKey = "k".repeat(40_000);
+            cache.put(longKey, entry("long"));
+            cache.put("x".repeat(DiskResponseCache.MAX_STRING_BYTES + 1), entry("too long"));
+
+            assertThat(body(cache.get(longKey))).isEqualTo("long");
+            assertThat(cache.size()).isEqualTo(1);
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024)) {
+            assertThat(body(cache.get("k".repeat(40_000)))).isEqualTo("long");
+        }
+    }
+
+    @Test
+    void testInvalidationSurvivesReopen() {
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            cache.put("scope /api/v1/beer/1 [application/json]", entry("beer 1"));
+            cache.put("scope /api/v1/beer/12 [application/json]", entry("beer 12"));
+            cache.invalidate("scope /api/v1/beer/1 ");
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 64 * 1024)) {
+            assertThat(cache.get("scope /api/v1/beer/1 [application/json]")).isNull();
+            assertThat(body(cache.get("scope /api/v1/beer/12 [application/json]"))).isEqualTo("beer 12");
+        }
+    }
+
+    private static DiskResponseCache.Entry entry(String body) {
+        return new DiskResponseCache.Entry(200, "application/json", "\"v1\"", NOW, NOW.plusSeconds(60),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(DiskResponseCache.Entry entry) {
+        return new String(entry.body(), StandardCharsets.UTF_8);
+    }
+}
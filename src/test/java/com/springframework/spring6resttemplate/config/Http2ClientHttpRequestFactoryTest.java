@@ -0,0 +1,114 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Http2ClientHttpRequestFactoryTest {
+
+    DisposableServer server;
+    AtomicInteger connections = new AtomicInteger();
+    AtomicInteger http2Streams = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connections.incrementAndGet()) //tcp connections, not streams
+                .handle((request, response) -> {
+                    //netty hands h2 streams over as HTTP/1.1 requests tagged with the stream id
+                    if (request.requestHeaders().contains("x-http2-stream-id")) {
+                        http2Streams.incrementAndGet();
+                    }
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just("{\"beerName\":\"Galaxy Cat\"}").delayElement(Duration.ofMillis(20)));
+                })
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void testConcurrentCallsShareFewConnections() throws Exception {
+        RestTemplate restTemplate = new RestTemplate(new Http2ClientHttpRequestFactory(2, 50, Duration.ofSeconds(2),
+                Duration.ofSeconds(5), Duration.ofSeconds(5)));
+        ExecutorService callers = Executors.newFixedThreadPool(64);
+
+        try {
+            List<Future<String>> results = IntStream.range(0, 200)
+                    .mapToObj(i -> callers.submit(() -> restTemplate.getForObject(rootUrl() + "/api/v1/beer", String.class)))
+                    .toList();
+            for (Future<String> result : results) {
+                assertThat(result.get()).contains("Galaxy Cat");
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(http2Streams.get()).isGreaterThanOrEqualTo(198);
+        assertThat(connections.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testNoFreeStreamFailsAfterTimeout() throws IOException {
+        Http2ClientHttpRequestFactory factory = new Http2ClientHttpRequestFactory(1, 1, Duration.ofSeconds(2),
+                Duration.ofSeconds(5), Duration.ofMillis(50));
+        URI uri = URI.create(rootUrl() + "/api/v1/beer");
+
+        try (ClientHttpResponse held = factory.createRequest(uri, HttpMethod.GET).execute()) {
+            assertThat(factory.getActiveStreams()).isEqualTo(1);
+            assertThrows(IOException.class, () -> factory.createRequest(uri, HttpMethod.GET).execute());
+        }
+
+        assertThat(factory.getActiveStreams()).isZero();
+        try (ClientHttpResponse response = factory.createRequest(uri, HttpMethod.GET).execute()) {
+            assertThat(response.getStatusCode().value()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void testPoolStatsReportStreamsOnceBound() throws IOException {
+        Http2ClientHttpRequestFactory factory = new Http2ClientHttpRequestFactory(2, 3, Duration.ofSeconds(2),
+                Duration.ofSeconds(5), Duration.ofSeconds(5));
+        ConnectionPoolStats stats = new ConnectionPoolStats();
+        assertThat(stats.getMax()).isZero();
+
+        stats.bind(factory);
+        try (ClientHttpResponse held = factory.createRequest(URI.create(rootUrl() + "/api/v1/beer"), HttpMethod.GET).execute()) {
+            assertThat(stats.getLeased()).isEqualTo(1);
+            assertThat(stats.getAvailable()).isEqualTo(5);
+            assertThat(stats.getMax()).isEqualTo(6);
+            assertThat(stats.getPending()).isZero();
+        }
+        assertThat(stats.getLeased()).isZero();
+    }
+
+    private String rootUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+}
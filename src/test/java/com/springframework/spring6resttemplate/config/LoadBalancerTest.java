@@ -0,0 +1,111 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoadBalancerTest {
+
+    static final List<URI> REPLICAS = List.of(URI.create("http://beer-1:8080"), URI.create("http://beer-2:8080"),
+            URI.create("http://beer-3:8080"), URI.create("http://beer-4:8080"));
+
+    Clock clock;
+    Instant now;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2024-01-01T00:00:00Z");
+        clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+    }
+
+    @Test
+    void testLeastOutstandingAvoidsBusyInstances() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.LEAST_OUTSTANDING);
+        List<LoadBalancer.Endpoint> endpoints = loadBalancer.getEndpoints();
+        endpoints.get(0).started();
+        endpoints.get(1).started();
+        endpoints.get(3).started();
+
+        assertThat(loadBalancer.choose()).isSameAs(endpoints.get(2));
+    }
+
+    @Test
+    void testP2cNeverPicksTheBusiestOfTwo() {
+        LoadBalancer loadBalancer = new LoadBalancer(REPLICAS.subList(0, 2), LoadBalancer.Strategy.P2C,
+                5, Duration.ofSeconds(30), 50, clock);
+        loadBalancer.getEndpoints().get(0).started();
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose()).isSameAs(loadBalancer.getEndpoints().get(1));
+        }
+    }
+
+    @Test
+    void testFailingInstanceIsEjectedForAWhile() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.P2C);
+        LoadBalancer.Endpoint sick = loadBalancer.getEndpoints().get(0);
+
+        for (int i = 0; i < 5; i++) {
+            loadBalancer.onFailure(sick);
+        }
+
+        assertThat(loadBalancer.isEjected(sick)).isTrue();
+        assertThat(chosen(loadBalancer)).doesNotContain(sick.getBaseUri());
+
+        now = now.plusSeconds(31);
+        assertThat(loadBalancer.isEjected(sick)).isFalse();
+    }
+
+    @Test
+    void testSuccessResetsFailureRun() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.P2C);
+        LoadBalancer.Endpoint flaky = loadBalancer.getEndpoints().get(0);
+
+        for (int i = 0; i < 4; i++) {
+            loadBalancer.onFailure(flaky);
+        }
+        loadBalancer.onSuccess(flaky);
+        loadBalancer.onFailure(flaky);
+
+        assertThat(loadBalancer.isEjected(flaky)).isFalse();
+    }
+
+    @Test
+    void testEjectionIsCappedAtMaxPercent() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.P2C);
+
+        for (LoadBalancer.Endpoint endpoint : loadBalancer.getEndpoints()) {
+            for (int i = 0; i < 5; i++) {
+                loadBalancer.onFailure(endpoint);
+            }
+        }
+
+        assertThat(loadBalancer.getEndpoints().stream().filter(loadBalancer::isEjected)).hasSize(2);
+    }
+
+    private LoadBalancer loadBalancer(LoadBalancer.Strategy strategy) {
+        return new LoadBalancer(REPLICAS, strategy, 5, Duration.ofSeconds(30), 50, clock);
+    }
+
+    private Set<URI> chosen(LoadBalancer loadBalancer) {
+        Set<URI> chosen = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            chosen.add(loadBalancer.choose().getBaseUri());
+        }
+        return chosen;
+    }
+}
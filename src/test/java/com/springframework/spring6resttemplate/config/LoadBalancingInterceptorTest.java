@@ -0,0 +1,59 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancingInterceptorTest {
+
+    LoadBalancer loadBalancer = new LoadBalancer(List.of(URI.create("http://beer-1:8081"), URI.create("http://beer-2:8082")),
+            LoadBalancer.Strategy.LEAST_OUTSTANDING, 1, Duration.ofSeconds(30), 50, Clock.systemUTC());
+    LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(URI.create("http://localhost:8080"), loadBalancer);
+    List<URI> sent = new ArrayList<>();
+
+    @Test
+    void testRootRequestsAreRouted() throws IOException {
+        interceptor.intercept(request("http://localhost:8080/api/v1/beer?beerName=IPA%20Ale"), new byte[0], (req, body) -> {
+            sent.add(req.getURI());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+
+        assertThat(sent.get(0).getHost()).startsWith("beer-");
+        assertThat(sent.get(0).getRawPath()).isEqualTo("/api/v1/beer");
+        assertThat(sent.get(0).getRawQuery()).isEqualTo("beerName=IPA%20Ale");
+        assertThat(loadBalancer.getEndpoints()).allMatch(endpoint -> endpoint.getOutstanding() == 0);
+    }
+
+    @Test
+    void testOtherHostsAreLeftAlone() throws IOException {
+        interceptor.intercept(request("http://beer-9:8080/api/v1/beer"), new byte[0], (req, body) -> {
+            sent.add(req.getURI());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+
+        assertThat(sent).containsExactly(URI.create("http://beer-9:8080/api/v1/beer"));
+    }
+
+    @Test
+    void testServerErrorEjectsInstance() throws IOException {
+        interceptor.intercept(request("http://localhost:8080/api/v1/beer"), new byte[0],
+                (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(loadBalancer.getEndpoints().stream().filter(loadBalancer::isEjected)).hasSize(1);
+    }
+
+    private static MockClientHttpRequest request(String uri) {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create(uri));
+    }
+}
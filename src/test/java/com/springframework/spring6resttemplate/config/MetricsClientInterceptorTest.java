@@ -0,0 +1,50 @@
+package com.springframework.spring6resttemplate.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricsClientInterceptorTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MetricsClientInterceptor interceptor = new MetricsClientInterceptor(meterRegistry);
+    MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.PUT, URI.create("/api/v1/beer/1"));
+
+    @Test
+    void testCountsBytesAndTimesExchange() throws IOException {
+        byte[] requestBody = "{\"beerName\":\"IPA\"}".getBytes(StandardCharsets.UTF_8);
+
+        try (ClientHttpResponse response = interceptor.intercept(request, requestBody,
+                (req, body) -> new MockClientHttpResponse("0123456789".getBytes(StandardCharsets.UTF_8), HttpStatus.OK))) {
+            StreamUtils.drain(response.getBody());
+        }
+
+        assertThat(meterRegistry.get(MetricsClientInterceptor.BYTES_SENT).counter().count()).isEqualTo(requestBody.length);
+        assertThat(meterRegistry.get(MetricsClientInterceptor.BYTES_RECEIVED).counter().count()).isEqualTo(10);
+        assertThat(meterRegistry.get(MetricsClientInterceptor.NETWORK_TIMER)
+                .tags("method", "PUT", "status", "200").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedExchangeIsTimed() {
+        assertThrows(SocketTimeoutException.class, () -> interceptor.intercept(request, new byte[0], (req, body) -> {
+            throw new SocketTimeoutException("Read timed out");
+        }));
+
+        assertThat(meterRegistry.get(MetricsClientInterceptor.NETWORK_TIMER)
+                .tags("method", "PUT", "status", "IO_ERROR").timer().count()).isEqualTo(1);
+    }
+}
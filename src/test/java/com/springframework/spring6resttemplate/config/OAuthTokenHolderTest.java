@@ -0,0 +1,169 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OAuthTokenHolderTest {
+
+    static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+
+    OAuth2AuthorizedClientManager manager;
+    MutableClock clock;
+    OAuthTokenHolder tokenHolder;
+    ClientRegistration clientRegistration;
+    AtomicInteger tokenCounter;
+
+    @BeforeEach
+    void setUp() {
+        manager = mock(OAuth2AuthorizedClientManager.class);
+        clock = new MutableClock(START);
+        tokenCounter = new AtomicInteger();
+        clientRegistration = ClientRegistration
+                .withRegistrationId("springauth")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("test")
+                .tokenUri("test")
+                .build();
+
+        OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest
+                .withClientRegistrationId("springauth")
+                .principal("test")
+                .build();
+
+        tokenHolder = new OAuthTokenHolder(manager, authorizeRequest, Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void testTokenIsCached() {
+        when(manager.authorize(any())).thenAnswer(invocation -> nextClient(Duration.ofMinutes(5)));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(tokenHolder.getAuthorizationHeader()).isEqualTo("Bearer token-1");
+        }
+
+        verify(manager, times(1)).authorize(any());
+    }
+
+    @Test
+    void testRefreshInsideSkewWindow() {
+        when(manager.authorize(any())).thenAnswer(invocation -> nextClient(Duration.ofMinutes(5)));
+
+        assertThat(tokenHolder.getAuthorizationHeader()).isEqualTo("Bearer token-1");
+
+        clock.advance(Duration.ofMinutes(4).plusSeconds(30));
+
+        assertThat(tokenHolder.getAuthorizationHeader()).isEqualTo("Bearer token-2");
+        verify(manager, times(2)).authorize(any());
+    }
+
+    @Test
+    void testRefreshFailureKeepsValidToken() {
+        when(manager.authorize(any()))
+                .thenAnswer(invocation -> nextClient(Duration.ofMinutes(5)))
+                .thenThrow(new IllegalStateException("auth server down"));
+
+        tokenHolder.getAuthorizationHeader();
+        clock.advance(Duration.ofMinutes(4).plusSeconds(30));
+
+        assertThat(tokenHolder.getAuthorizationHeader()).isEqualTo("Bearer token-1");
+    }
+
+    @Test
+    void testMissingCredentials() {
+        when(manager.authorize(any())).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () -> tokenHolder.getAuthorizationHeader());
+    }
+
+    @Test
+    void testOnlyOneThreadRefreshes() throws Exception {
+        when(manager.authorize(any())).thenAnswer(invocation -> nextClient(Duration.ofMinutes(5)));
+        tokenHolder.getAuthorizationHeader();
+        clock.advance(Duration.ofMinutes(4).plusSeconds(30));
+
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            refreshStarted.countDown();
+            releaseRefresh.await(5, TimeUnit.SECONDS);
+            return nextClient(Duration.ofMinutes(5));
+        }).when(manager).authorize(any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<String> refresher = executor.submit(tokenHolder::getAuthorizationHeader);
+            assertThat(refreshStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            //while the refresh is running everybody else gets the old, still valid token
+            for (int i = 0; i < 16; i++) {
+                assertThat(executor.submit(tokenHolder::getAuthorizationHeader).get(5, TimeUnit.SECONDS))
+                        .isEqualTo("Bearer token-1");
+            }
+
+            releaseRefresh.countDown();
+            assertThat(refresher.get(5, TimeUnit.SECONDS)).isEqualTo("Bearer token-2");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(manager, times(2)).authorize(any());
+    }
+
+    private OAuth2AuthorizedClient nextClient(Duration lifetime) {
+        Instant issuedAt = clock.instant();
+        OAuth2AccessToken token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                "token-" + tokenCounter.incrementAndGet(), issuedAt, issuedAt.plus(lifetime));
+
+        return new OAuth2AuthorizedClient(clientRegistration, "test", token);
+    }
+
+    static class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.springframework.spring6resttemplate.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCompressionInterceptorTest {
+
+    RequestCompressionInterceptor interceptor = new RequestCompressionInterceptor(1024);
+    MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.PUT, URI.create("/api/v1/beer/1"));
+    List<byte[]> sentBodies = new ArrayList<>();
+
+    @Test
+    void testLargeBodyIsGzipped() throws IOException {
+        byte[] body = "{\"beerName\":\"Galaxy Cat\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        send(body);
+
+        assertThat(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(sentBodies.get(0).length).isLessThan(body.length);
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteArrayInputStream(sentBodies.get(0)))) {
+            assertThat(gunzip.readAllBytes()).isEqualTo(body);
+        }
+    }
+
+    @Test
+    void testSmallBodyIsSentAsIs() throws IOException {
+        byte[] body = "{\"beerName\":\"Galaxy Cat\"}".getBytes(StandardCharsets.UTF_8);
+
+        send(body);
+
+        assertThat(request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(sentBodies.get(0)).isSameAs(body);
+    }
+
+    private void send(byte[] body) throws IOException {
+        interceptor.intercept(request, body, (req, sentBody) -> {
+            sentBodies.add(sentBody);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.NO_CONTENT);
+        });
+    }
+}
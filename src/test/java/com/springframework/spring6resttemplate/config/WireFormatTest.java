@@ -0,0 +1,77 @@
+package com.springframework.spring6resttemplate.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withCreatedEntity;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class WireFormatTest {
+
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    ObjectMapper jsonMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new ParameterNamesModule(JsonCreator.Mode.DEFAULT));
+
+    RestTemplate restTemplate = new RestTemplate(List.of(WireFormat.SMILE.binaryConverter(jsonMapper),
+            new MappingJackson2HttpMessageConverter(jsonMapper)));
+
+    MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+
+    BeerDTO beer = BeerDTO.builder()
+            .id(UUID.randomUUID())
+            .beerName("Galaxy Cat")
+            .beerStyle(BeerStyle.PALE_ALE)
+            .upc("12356")
+            .build();
+
+    @Test
+    void testBinaryIsPreferredAndDecoded() throws Exception {
+        byte[] smileBody = jsonMapper.copyWith(new SmileFactory()).writeValueAsBytes(beer);
+
+        server.expect(method(HttpMethod.GET))
+                .andExpect(request -> assertThat(request.getHeaders().getAccept().get(0)).isEqualTo(SMILE))
+                .andRespond(withSuccess(smileBody, SMILE));
+
+        BeerDTO decoded = restTemplate.getForObject("http://localhost:8080/api/v1/beer/1", BeerDTO.class);
+
+        server.verify();
+        assertThat(decoded).isEqualTo(beer);
+    }
+
+    @Test
+    void testRequestBodiesStayJson() {
+        server.expect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andRespond(withCreatedEntity(URI.create("/api/v1/beer/1")));
+
+        restTemplate.postForLocation("http://localhost:8080/api/v1/beer", beer);
+
+        server.verify();
+    }
+
+    @Test
+    void testJsonHasNoBinaryConverter() {
+        assertThat(WireFormat.JSON.binaryConverter(jsonMapper)).isNull();
+    }
+}
@@ -0,0 +1,381 @@
+package com.springframework.spring6resttemplate.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.springframework.spring6resttemplate.model.BeerDTOPageImpl;
+import com.springframework.spring6resttemplate.model.BeerStyle;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * in process beer service and authorization server on a random local port, so the client can be driven over its real
+ * transport without spring6-playground or localhost:9000. Beers are answered from pre rendered bodies that honour
+ * Accept (json, smile, cbor) and Accept-Encoding (gzip), unless a fixture recorded with {@link #recordFrom} and loaded
+ * with {@link #replay} matches the request. Latency and errors can be injected on the beer endpoints, and the body
+ * bytes written are counted so the benchmarks can report what went over the wire. While recording, the Authorization
+ * of the client is forwarded only when it is not a token this stub issued, the real service would answer those with a
+ * 401 and the fixtures would hold nothing else. Point the client at the real token endpoint to record authorized calls
+ */
+public class BeerStubServer implements AutoCloseable {
+    public static final String BEER_PATH = "/api/v1/beer";
+    public static final String TOKEN_PATH = "/oauth2/token";
+
+    //the JDK client sets these itself and refuses requests that carry them
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "upgrade", "transfer-encoding");
+    private static final String TOKEN_PREFIX = "stub-token-";
+
+    static {
+        //without it headers and body go out as separate segments and Nagle adds ~40ms to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, ObjectMapper> mappersByContentType;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService delayedResponses;
+    private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+    private final Map<String, Fixture> fixtures = new ConcurrentHashMap<>();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong tokensIssued = new AtomicLong();
+    private final AtomicLong errorsInjected = new AtomicLong();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private volatile URI upstream;
+    private volatile Path recordDirectory;
+    private volatile HttpClient upstreamClient;
+
+    public BeerStubServer(ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.mappersByContentType = Map.of(
+                "application/json", objectMapper,
+                "application/x-jackson-smile", objectMapper.copyWith(new SmileFactory()),
+                "application/cbor", objectMapper.copyWith(new CBORFactory()));
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        this.delayedResponses = Executors.newScheduledThreadPool(2);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext(BEER_PATH, this::handleBeer);
+        this.server.createContext(TOKEN_PATH, this::handleToken);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getRootUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String getTokenUri() {
+        return getRootUrl() + TOKEN_PATH;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public long getTokensIssued() {
+        return tokensIssued.get();
+    }
+
+    public long getErrorsInjected() {
+        return errorsInjected.get();
+    }
+
+    //every beer response is held back latency plus a random share of jitter, without tying up a server thread
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+    }
+
+    //errorRate of the beer requests fail with errorStatus, a 429 or 503 carries Retry-After: 1
+    public void setErrors(double errorRate, int errorStatus) {
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+    }
+
+    //answers from the fixtures in directory where one matches method, path and query
+    public void replay(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".json")).toList()) {
+                Fixture fixture = objectMapper.readValue(file.toFile(), Fixture.class);
+                fixtures.put(fixture.method() + " " + fixture.uri(), fixture);
+            }
+        }
+    }
+
+    //proxies every beer request to upstream and writes each exchange to directory as a fixture for replay, stub issued
+    //tokens are not forwarded
+    public void recordFrom(URI upstream, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.upstreamClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.recordDirectory = directory;
+        this.upstream = upstream;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        delayedResponses.shutdownNow();
+    }
+
+    private void handleBeer(HttpExchange exchange) {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            byte[] body = requestBody.readAllBytes();
+            String key = exchange.getRequestMethod() + " " + exchange.getRequestURI();
+
+            StubResponse response;
+            if (upstream != null) {
+                response = record(exchange, key, body);
+            } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errorsInjected.incrementAndGet();
+                response = error();
+            } else if (fixtures.containsKey(key)) {
+                response = fixtures.get(key).toResponse();
+            } else {
+                response = generated(exchange);
+            }
+
+            long delayNanos = latency.toNanos() + (long) (ThreadLocalRandom.current().nextDouble() * jitter.toNanos());
+            if (delayNanos > 0) {
+                delayedResponses.schedule(() -> send(exchange, response), delayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                send(exchange, response);
+            }
+        } catch (IOException | RuntimeException e) {
+            exchange.close();
+        }
+    }
+
+    //client credentials only, every call gets a fresh token that is good for five minutes
+    private void handleToken(HttpExchange exchange) {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.readAllBytes();
+            Map<String, Object> token = Map.of(
+                    "access_token", TOKEN_PREFIX + tokensIssued.incrementAndGet(),
+                    "token_type", "Bearer",
+                    "expires_in", 300,
+                    "scope", "message.read message.write");
+            send(exchange, new StubResponse(200, Map.of("Content-Type", "application/json"),
+                    objectMapper.writeValueAsBytes(token)));
+        } catch (IOException | RuntimeException e) {
+            exchange.close();
+        }
+    }
+
+    private StubResponse generated(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+
+        return switch (exchange.getRequestMethod()) {
+            case "GET" -> path.equals(BEER_PATH)
+                    ? rendered(exchange, "page-" + pageSize(exchange), () -> page(pageSize(exchange)))
+                    : rendered(exchange, "beer", () -> beer(0));
+            case "POST" -> new StubResponse(201, Map.of("Location", BEER_PATH + "/" + UUID.randomUUID()), new byte[0]);
+            default -> new StubResponse(204, Map.of(), new byte[0]);
+        };
+    }
+
+    private StubResponse rendered(HttpExchange exchange, String resource, Supplier<Object> value) {
+        String contentType = contentType(exchange.getRequestHeaders().getFirst("Accept"));
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        byte[] body = bodies.computeIfAbsent(resource + "|" + contentType + "|" + gzip,
+                key -> render(mappersByContentType.get(contentType), value.get(), gzip));
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", contentType);
+        if (gzip) {
+            headers.put("Content-Encoding", "gzip");
+        }
+        return new StubResponse(200, headers, body);
+    }
+
+    private StubResponse error() {
+        Map<String, String> headers = errorStatus == 429 || errorStatus == 503 ? Map.of("Retry-After", "1") : Map.of();
+        return new StubResponse(errorStatus, headers, new byte[0]);
+    }
+
+    private StubResponse record(HttpExchange exchange, String key, byte[] body) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(upstream.resolve(exchange.getRequestURI().toString()))
+                .timeout(Duration.ofSeconds(30))
+                .method(exchange.getRequestMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                values.stream()
+                        .filter(value -> !name.equalsIgnoreCase("Authorization") || !isStubToken(value))
+                        .forEach(value -> request.header(name, value));
+            }
+        });
+
+        HttpResponse<byte[]> upstreamResponse;
+        try {
+            upstreamResponse = upstreamClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted recording " + key, e);
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        upstreamResponse.headers().map().forEach((name, values) -> {
+            if (!name.startsWith(":") && !RESTRICTED_HEADERS.contains(name.toLowerCase()) && !values.isEmpty()) {
+                headers.put(name, values.get(0));
+            }
+        });
+
+        Fixture fixture = Fixture.of(exchange.getRequestMethod(), exchange.getRequestURI().toString(),
+                upstreamResponse.statusCode(), headers, upstreamResponse.body());
+        String fileName = key.replaceAll("[^A-Za-z0-9._-]+", "_");
+        fileName = fileName.substring(0, Math.min(fileName.length(), 100)) + "-" + Integer.toHexString(key.hashCode()) + ".json";
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(recordDirectory.resolve(fileName).toFile(), fixture);
+        fixtures.put(key, fixture);
+
+        return fixture.toResponse();
+    }
+
+    private static boolean isStubToken(String authorization) {
+        return authorization.regionMatches(true, 0, "Bearer ", 0, 7) && authorization.substring(7).trim().startsWith(TOKEN_PREFIX);
+    }
+
+    private void send(HttpExchange exchange, StubResponse response) {
+        try (exchange) {
+            response.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+            exchange.sendResponseHeaders(response.status(), response.body().length == 0 ? -1 : response.body().length);
+            if (response.body().length > 0) {
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(response.body());
+                }
+                bytesWritten.addAndGet(response.body().length);
+            }
+        } catch (IOException ignored) {
+            //the client went away, nothing left to answer
+        }
+    }
+
+    //first supported type in Accept wins, like a server whose converters cover all three
+    private String contentType(String accept) {
+        if (accept != null) {
+            for (String type : accept.split(",")) {
+                String mediaType = type.split(";")[0].trim();
+                if (mappersByContentType.containsKey(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        return "application/json";
+    }
+
+    private static byte[] render(ObjectMapper mapper, Object value, boolean gzip) {
+        try {
+            byte[] encoded = mapper.writeValueAsBytes(value);
+            if (!gzip) {
+                return encoded;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+                gzipStream.write(encoded);
+            }
+            return compressed.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int pageSize(HttpExchange exchange) {
+        String pageSize = UriComponentsBuilder.fromUri(exchange.getRequestURI()).build()
+                .getQueryParams().getFirst("pageSize");
+        return pageSize == null ? 25 : Integer.parseInt(pageSize);
+    }
+
+    public static BeerDTOPageImpl page(int pageSize) {
+        List<BeerDTO> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(beer(i));
+        }
+        return new BeerDTOPageImpl(content, PageRequest.of(0, pageSize), pageSize * 10L);
+    }
+
+    private static BeerDTO beer(int i) {
+        BeerStyle[] styles = BeerStyle.values();
+        return BeerDTO.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName("Beer " + i)
+                .beerStyle(styles[i % styles.length])
+                .upc(String.valueOf(100000 + i))
+                .quantityOnHand(i)
+                .price(new BigDecimal("12.99"))
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+    }
+
+    private record StubResponse(int status, Map<String, String> headers, byte[] body) {
+    }
+
+    /**
+     * one recorded exchange. Json bodies are kept as text so fixtures can be edited by hand, anything else (binary
+     * formats, gzip) as base64
+     */
+    public record Fixture(String method, String uri, int status, Map<String, String> headers, String body, boolean base64) {
+
+        static Fixture of(String method, String uri, int status, Map<String, String> headers, byte[] body) {
+            String contentType = headers.entrySet().stream()
+                    .filter(header -> header.getKey().equalsIgnoreCase("Content-Type"))
+                    .map(Map.Entry::getValue)
+                    .findFirst().orElse("");
+            boolean text = contentType.contains("json") && headers.keySet().stream()
+                    .noneMatch(name -> name.equalsIgnoreCase("Content-Encoding"));
+
+            return text ? new Fixture(method, uri, status, headers, new String(body, StandardCharsets.UTF_8), false)
+                    : new Fixture(method, uri, status, headers, Base64.getEncoder().encodeToString(body), true);
+        }
+
+        StubResponse toResponse() {
+            byte[] bytes = body == null ? new byte[0]
+                    : base64 ? Base64.getDecoder().decode(body) : body.getBytes(StandardCharsets.UTF_8);
+            return new StubResponse(status, headers == null ? Map.of() : headers, bytes);
+        }
+    }
+}
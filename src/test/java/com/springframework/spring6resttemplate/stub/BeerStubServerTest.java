@@ -0,0 +1,155 @@
+package com.springframework.spring6resttemplate.stub;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.springframework.spring6resttemplate.client.BeerClientImpl;
+import com.springframework.spring6resttemplate.config.OAuthClientInterceptor;
+import com.springframework.spring6resttemplate.model.BeerDTO;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerStubServerTest {
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+            .build();
+
+    BeerStubServer stubServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = new BeerStubServer(objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
+    }
+
+    @Test
+    void testClientGetsTokenAndBeersOverRealTransport() {
+        ClientRegistrationRepository registrations = new InMemoryClientRegistrationRepository(ClientRegistration
+                .withRegistrationId("springauth")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .clientId("messaging-client")
+                .clientSecret("secret")
+                .tokenUri(stubServer.getTokenUri())
+                .build());
+        var manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(registrations,
+                new InMemoryOAuth2AuthorizedClientService(registrations));
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder().clientCredentials().build());
+
+        BeerClientImpl beerClient = new BeerClientImpl(new RestTemplateBuilder()
+                .messageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .additionalInterceptors(new OAuthClientInterceptor(manager, registrations))
+                .uriTemplateHandler(new DefaultUriBuilderFactory(stubServer.getRootUrl())));
+
+        Page<BeerDTO> page = beerClient.listBeersWithFilters(null, null, null, 1, 10);
+        BeerDTO beer = beerClient.getBeerById(UUID.randomUUID());
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(beer.getBeerName()).isEqualTo("Beer 0");
+        assertThat(stubServer.getTokensIssued()).isEqualTo(1);
+    }
+
+    @Test
+    void testInjectedErrorsAndLatency() {
+        RestTemplate restTemplate = new RestTemplate();
+        String beerUrl = stubServer.getRootUrl() + BeerStubServer.BEER_PATH + "/" + UUID.randomUUID();
+
+        stubServer.setErrors(1.0, 503);
+        HttpServerErrorException error = assertThrows(HttpServerErrorException.class,
+                () -> restTemplate.getForObject(beerUrl, String.class));
+        assertThat(error.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(stubServer.getErrorsInjected()).isEqualTo(1);
+
+        stubServer.setErrors(0, 503);
+        stubServer.setLatency(Duration.ofMillis(100), Duration.ZERO);
+        long start = System.nanoTime();
+        restTemplate.getForObject(beerUrl, String.class);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    void testRecordedFixturesAreReplayed(@TempDir Path fixtures) throws IOException {
+        RestTemplate restTemplate = new RestTemplate();
+        String path = BeerStubServer.BEER_PATH + "?pageNumber=1&pageSize=5";
+        String upstreamBody = restTemplate.getForObject(stubServer.getRootUrl() + path, String.class);
+
+        try (BeerStubServer recorder = new BeerStubServer(objectMapper)) {
+            recorder.recordFrom(URI.create(stubServer.getRootUrl()), fixtures);
+            assertThat(restTemplate.getForObject(recorder.getRootUrl() + path, String.class)).isEqualTo(upstreamBody);
+        }
+        try (var files = Files.list(fixtures)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+
+        //a fresh stub renders new ids, the same body back means it came from the fixture
+        try (BeerStubServer replayer = new BeerStubServer(objectMapper)) {
+            replayer.replay(fixtures);
+            assertThat(restTemplate.getForObject(replayer.getRootUrl() + path, String.class)).isEqualTo(upstreamBody);
+        }
+    }
+
+    @Test
+    void testRecordingDoesNotForwardStubTokens(@TempDir Path fixtures) throws IOException {
+        List<String> forwarded = new CopyOnWriteArrayList<>();
+        HttpServer upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext(BeerStubServer.BEER_PATH, exchange -> {
+            forwarded.add(String.valueOf(exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION)));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        upstream.start();
+
+        try (BeerStubServer recorder = new BeerStubServer(objectMapper)) {
+            recorder.recordFrom(URI.create("http://127.0.0.1:" + upstream.getAddress().getPort()), fixtures);
+            RestTemplate restTemplate = new RestTemplate();
+
+            for (String token : List.of("Bearer stub-token-1", "Bearer real-token")) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.AUTHORIZATION, token);
+                restTemplate.exchange(recorder.getRootUrl() + BeerStubServer.BEER_PATH, HttpMethod.GET,
+                        new HttpEntity<>(headers), Void.class);
+            }
+        } finally {
+            upstream.stop(0);
+        }
+
+        assertThat(forwarded).containsExactly("null", "Bearer real-token");
+    }
+}